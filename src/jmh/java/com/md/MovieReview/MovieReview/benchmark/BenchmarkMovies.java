@@ -0,0 +1,49 @@
+package com.md.MovieReview.MovieReview.benchmark;
+
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.Review;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class builds the sample documents shared by the benchmarks.
+ * The shape follows the entries of data/movies.json: a handful of genres, ten backdrops and a list of reviews.
+ */
+final class BenchmarkMovies {
+
+    static final int REVIEWS_PER_MOVIE = 20;
+
+    private BenchmarkMovies() {
+    }
+
+    static Movie movie() {
+        List<String> backdrops = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            backdrops.add("https://image.tmdb.org/t/p/original/backdrop" + i + "r9PkFnRUIthgBp2JZZzD380MWZy.jpg");
+        }
+        List<Review> reviews = new ArrayList<>();
+        for (int i = 0; i < REVIEWS_PER_MOVIE; i++) {
+            reviews.add(review(i));
+        }
+        Movie movie = new Movie();
+        movie.setId(new ObjectId());
+        movie.setImdbId("tt3915174");
+        movie.setTitle("Puss in Boots: The Last Wish");
+        movie.setReleaseDate("2022-12-21");
+        movie.setTrailerLink("https://www.youtube.com/watch?v=tHb7WlgyaUc");
+        movie.setPoster("https://image.tmdb.org/t/p/w500/1NqwE6LP9IEdOZ57NCT51ftHtWT.jpg");
+        movie.setGenres(List.of("Animation", "Action", "Adventure", "Comedy", "Family"));
+        movie.setBackdrops(backdrops);
+        movie.setReviewCount(REVIEWS_PER_MOVIE);
+        movie.setLastReviewedAt(Instant.parse("2023-06-24T10:15:30Z"));
+        movie.setReviewIds(reviews);
+        return movie;
+    }
+
+    static Review review(int i) {
+        return new Review(new ObjectId(), "What an amazing movie, I loved it! Review number " + i, "tt3915174");
+    }
+}
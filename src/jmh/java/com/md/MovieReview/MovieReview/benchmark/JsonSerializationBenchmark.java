@@ -0,0 +1,59 @@
+package com.md.MovieReview.MovieReview.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.md.MovieReview.MovieReview.config.JsonConfig;
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.Review;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures the Jackson serialization of the response bodies, with a mapper configured like Spring Boot's.
+ * It covers the ObjectId ids of Movie and Review, the @JsonProperty("reviewId") renaming on Review,
+ * and the "movieFields" filter of JsonConfig.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Movie movie;
+    private Review review;
+
+    @Setup
+    public void setUp() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        new JsonConfig().movieFieldsFilterCustomizer().customize(builder);
+        objectMapper = builder.build();
+        movie = BenchmarkMovies.movie();
+        review = BenchmarkMovies.review(0);
+    }
+
+    @Benchmark
+    public byte[] serializeMovie() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(movie);
+    }
+
+    @Benchmark
+    public byte[] serializeReview() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(review);
+    }
+}
@@ -0,0 +1,72 @@
+package com.md.MovieReview.MovieReview.benchmark;
+
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.service.MovieReviewResolver;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures the MappingMongoConverter on Movie, with its embedded genres and backdrops and its review references.
+ *
+ * <p>writeMovie converts a Movie into the document sent to MongoDB, including the review ids written for @DocumentReference.
+ * readMovie is the read path of MovieReviewResolver: the review ids are detached from the raw document before it is mapped,
+ * so no reference lookup (and no database) is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovieMappingBenchmark {
+
+    private MappingMongoConverter converter;
+    private Movie movie;
+    private Document storedMovie;
+
+    @Setup
+    public void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(Collections.emptyList());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        movie = BenchmarkMovies.movie();
+        storedMovie = new Document();
+        converter.write(movie, storedMovie);
+    }
+
+    @Benchmark
+    public Document writeMovie() {
+        Document document = new Document();
+        converter.write(movie, document);
+        return document;
+    }
+
+    @Benchmark
+    public Movie readMovie() {
+        Document raw = new Document(storedMovie);
+        MovieReviewResolver.detachReviewIds(raw);
+        return converter.read(Movie.class, raw);
+    }
+}
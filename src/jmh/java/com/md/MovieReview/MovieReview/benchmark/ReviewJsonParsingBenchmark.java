@@ -0,0 +1,49 @@
+package com.md.MovieReview.MovieReview.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures the parsing of the body sent to PUT /api/v1/reviews/updateReview/{id}.
+ * freshMapperPerCall builds a new ObjectMapper for every request, as ReviewService.updateReview used to.
+ * sharedMapper reuses one mapper, as ReviewService does now with the injected ObjectMapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReviewJsonParsingBenchmark {
+
+    private static final String REVIEW_JSON = "{\"id\":\"64975ee5ba5bc62639a14a1e\",\"reviewMessage\":\"Never seen a movie like this before!\"}";
+
+    private ObjectMapper sharedMapper;
+
+    @Setup
+    public void setUp() {
+        sharedMapper = new ObjectMapper();
+    }
+
+    @Benchmark
+    public String freshMapperPerCall() throws JsonProcessingException {
+        return new ObjectMapper().readTree(REVIEW_JSON).get("reviewMessage").asText();
+    }
+
+    @Benchmark
+    public String sharedMapper() throws JsonProcessingException {
+        return sharedMapper.readTree(REVIEW_JSON).get("reviewMessage").asText();
+    }
+}
@@ -0,0 +1,36 @@
+package com.md.MovieReview.MovieReview.loadtest;
+
+import org.bson.types.ObjectId;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This record holds the keys of the seeded catalog the requests are built from.
+ *
+ * @param imdbIds are the imdbIds of the movies, the first fifth being the popular ones.
+ * @param reviewIds are the ids of the seeded reviews.
+ */
+record Catalog(List<String> imdbIds, List<ObjectId> reviewIds) {
+
+    /**
+     * Share of the requests going to the popular movies.
+     */
+    private static final double POPULAR_SHARE = 0.8;
+
+    /**
+     * @return the imdbId of a movie, a popular one with a probability of {@value #POPULAR_SHARE}.
+     */
+    String pickImdbId(Random random) {
+        int popular = Math.max(1, imdbIds.size() / 5);
+        int bound = random.nextDouble() < POPULAR_SHARE ? popular : imdbIds.size();
+        return imdbIds.get(random.nextInt(bound));
+    }
+
+    /**
+     * @return the id of a seeded review.
+     */
+    ObjectId pickReviewId(Random random) {
+        return reviewIds.get(random.nextInt(reviewIds.size()));
+    }
+}
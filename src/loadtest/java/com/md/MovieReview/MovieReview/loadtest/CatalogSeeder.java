@@ -0,0 +1,111 @@
+package com.md.MovieReview.MovieReview.loadtest;
+
+import com.md.MovieReview.MovieReview.document.BucketedReview;
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.Review;
+import com.md.MovieReview.MovieReview.document.ReviewBucket;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class seeds the synthetic catalog the load test runs against.
+ *
+ * <p>Movies have the shape of the entries of data/movies.json and are written in the layout the application itself
+ * writes: review ids on the movie, the imdbId on every review, the reviews copied into buckets, and the review count,
+ * release date and version already set, so the startup migrations find nothing to do.
+ */
+final class CatalogSeeder {
+
+    private static final List<String> GENRES = List.of("Action", "Adventure", "Animation", "Comedy", "Drama", "Family",
+            "Fantasy", "Horror", "Science Fiction", "Thriller");
+
+    /**
+     * Same as the default "reviews.buckets.size".
+     */
+    private static final int BUCKET_SIZE = 100;
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final LoadTestSettings settings;
+
+    CatalogSeeder(MongoTemplate mongoTemplate, LoadTestSettings settings) {
+        this.mongoTemplate = mongoTemplate;
+        this.settings = settings;
+    }
+
+    /**
+     * This method writes the movies, their reviews and their review buckets.
+     *
+     * @return the keys of the seeded catalog.
+     */
+    Catalog seed() {
+        Random random = new Random(settings.seed());
+        List<String> imdbIds = new ArrayList<>(settings.movies());
+        List<ObjectId> reviewIds = new ArrayList<>(settings.movies() * settings.reviewsPerMovie());
+        List<Movie> movies = new ArrayList<>();
+        List<Review> reviews = new ArrayList<>();
+        List<ReviewBucket> buckets = new ArrayList<>();
+
+        for (int i = 0; i < settings.movies(); i++) {
+            String imdbId = String.format("tt%07d", i);
+            List<Review> movieReviews = new ArrayList<>(settings.reviewsPerMovie());
+            for (int r = 0; r < settings.reviewsPerMovie(); r++) {
+                Review review = new Review(new ObjectId(), "Synthetic review " + r + " of " + imdbId + ", rated "
+                        + (1 + random.nextInt(5)) + " out of 5.", imdbId);
+                movieReviews.add(review);
+                reviewIds.add(review.getId());
+            }
+            for (int start = 0; start < movieReviews.size(); start += BUCKET_SIZE) {
+                List<Review> chunk = movieReviews.subList(start, Math.min(start + BUCKET_SIZE, movieReviews.size()));
+                buckets.add(new ReviewBucket(new ObjectId(), imdbId, chunk.size(), chunk.size() < BUCKET_SIZE,
+                        chunk.stream().map(BucketedReview::of).toList()));
+            }
+            imdbIds.add(imdbId);
+            reviews.addAll(movieReviews);
+            movies.add(movie(imdbId, i, movieReviews, random));
+
+            if (movies.size() == INSERT_BATCH_SIZE || i == settings.movies() - 1) {
+                insert(movies, Movie.class);
+                insert(reviews, Review.class);
+                insert(buckets, ReviewBucket.class);
+            }
+        }
+        return new Catalog(imdbIds, reviewIds);
+    }
+
+    private static Movie movie(String imdbId, int index, List<Review> reviews, Random random) {
+        LocalDate releaseDate = LocalDate.of(1980, 1, 1).plusDays(random.nextInt(45 * 365));
+        List<String> backdrops = new ArrayList<>(10);
+        for (int b = 0; b < 10; b++) {
+            backdrops.add("https://image.tmdb.org/t/p/original/" + imdbId + "-backdrop" + b + ".jpg");
+        }
+        Movie movie = new Movie();
+        movie.setImdbId(imdbId);
+        movie.setTitle("Synthetic Movie " + index);
+        movie.setReleaseDate(releaseDate.toString());
+        movie.setReleasedAt(releaseDate.atStartOfDay(ZoneOffset.UTC).toInstant());
+        movie.setTrailerLink("https://www.youtube.com/watch?v=" + imdbId);
+        movie.setPoster("https://image.tmdb.org/t/p/w500/" + imdbId + ".jpg");
+        int genre = random.nextInt(GENRES.size());
+        movie.setGenres(List.of(GENRES.get(genre), GENRES.get((genre + 1 + random.nextInt(GENRES.size() - 1)) % GENRES.size())));
+        movie.setBackdrops(backdrops);
+        movie.setReviewIds(new ArrayList<>(reviews));
+        movie.setReviewCount(reviews.size());
+        movie.setVersion(1L);
+        return movie;
+    }
+
+    private <T> void insert(List<T> documents, Class<T> type) {
+        if (!documents.isEmpty()) {
+            mongoTemplate.insert(documents, type);
+            documents.clear();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.md.MovieReview.MovieReview.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * This class writes the results of a load test run to the report directory:
+ *
+ * <ul>
+ *     <li>report.md: the settings of the run and, per operation and overall, the throughput with p50, p99, p99.9 and
+ *     max latency. Lines are in a fixed order with fixed precision, so reports of two commits can be diffed.</li>
+ *     <li>latency-&lt;operation&gt;.hgrm: the full latency distribution of every operation, in milliseconds,
+ *     which the HdrHistogram plotter can draw.</li>
+ * </ul>
+ */
+final class LoadReport {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private LoadReport() {
+    }
+
+    /**
+     * This method writes the report files and returns the contents of report.md.
+     *
+     * @param settings are the settings of the run.
+     * @param result are the measurements of the run, the warmup excluded.
+     * @return the report, to be printed as well.
+     * @throws IOException if a file cannot be written.
+     */
+    static String write(LoadTestSettings settings, OpenModelGenerator.LoadResult result) throws IOException {
+        Files.createDirectories(settings.reportDirectory());
+        double seconds = result.duration().toMillis() / 1000.0;
+
+        List<String> lines = new ArrayList<>();
+        lines.add("# Load test report");
+        lines.add("");
+        lines.add("| Setting | Value |");
+        lines.add("|---|---|");
+        lines.add("| movies | " + settings.movies() + " |");
+        lines.add("| reviews per movie | " + settings.reviewsPerMovie() + " |");
+        lines.add("| offered rate (req/s) | " + settings.rate() + " |");
+        lines.add("| warmup | " + settings.warmup() + " |");
+        lines.add("| duration | " + settings.duration() + " |");
+        lines.add("| seed | " + settings.seed() + " |");
+        lines.add("| mix | " + mix(settings.mix()) + " |");
+        lines.add("");
+        lines.add("| Operation | Requests | Errors | Throughput (req/s) | p50 (ms) | p99 (ms) | p99.9 (ms) | max (ms) |");
+        lines.add("|---|---|---|---|---|---|---|---|");
+
+        Histogram all = new Histogram(3);
+        long allErrors = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram latencies = result.latencies().get(operation);
+            long errors = result.errors().get(operation).sum();
+            if (latencies.getTotalCount() == 0) {
+                continue;
+            }
+            all.add(latencies);
+            allErrors += errors;
+            lines.add(row(operation.label(), latencies, errors, seconds));
+            try (PrintStream out = new PrintStream(Files.newOutputStream(
+                    settings.reportDirectory().resolve("latency-" + operation.label() + ".hgrm")))) {
+                latencies.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+        lines.add(row("all", all, allErrors, seconds));
+
+        String report = String.join(System.lineSeparator(), lines) + System.lineSeparator();
+        Files.writeString(settings.reportDirectory().resolve("report.md"), report);
+        return report;
+    }
+
+    private static String row(String name, Histogram latencies, long errors, double seconds) {
+        return String.format(Locale.ROOT, "| %s | %d | %d | %.1f | %.2f | %.2f | %.2f | %.2f |",
+                name,
+                latencies.getTotalCount(),
+                errors,
+                latencies.getTotalCount() / seconds,
+                latencies.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                latencies.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                latencies.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                latencies.getMaxValue() / MICROS_PER_MILLI);
+    }
+
+    private static String mix(Map<Operation, Integer> mix) {
+        List<String> weights = new ArrayList<>();
+        mix.forEach((operation, weight) -> weights.add(operation.label() + "=" + weight));
+        return String.join(",", weights);
+    }
+}
@@ -0,0 +1,79 @@
+package com.md.MovieReview.MovieReview.loadtest;
+
+import com.md.MovieReview.MovieReview.MovieReviewApplication;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This is the entry point of the load test: mvn -Ploadtest test-compile exec:exec, see the "loadtest" Maven profile.
+ *
+ * <p>It starts an in-memory MongoDB stand-in (mongo-java-server) on a local port, seeds it with the synthetic catalog
+ * of CatalogSeeder, starts the application against it on a random port, applies the open-model load of
+ * OpenModelGenerator for the warmup and then for the measured duration, and writes the LoadReport.
+ * Nothing leaves the machine, so it runs offline.
+ *
+ * <p>The stand-in has no text indexes, so index creation is switched off and the search endpoint is not part of the
+ * workload; the consistency sweeper is switched off as well, since it is not under test. Arguments are passed to the
+ * application, e.g. "--spring.threads.virtual.enabled=true" to load test another configuration.
+ */
+public final class LoadTest {
+
+    private static final String DATABASE = "loadtest";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        if (settings.reviewsPerMovie() == 0 && settings.mix().getOrDefault(Operation.UPDATE, 0) > 0) {
+            throw new IllegalArgumentException("The update operation needs seeded reviews, set loadtest.reviews-per-movie above 0");
+        }
+
+        MongoServer mongoServer = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = mongoServer.bind();
+        String mongoUri = "mongodb://" + address.getHostString() + ":" + address.getPort();
+        try {
+            Catalog catalog;
+            try (MongoClient seedClient = MongoClients.create(mongoUri)) {
+                catalog = new CatalogSeeder(new MongoTemplate(seedClient, DATABASE), settings).seed();
+            }
+            System.out.printf("Seeded %d movies and %d reviews%n", catalog.imdbIds().size(), catalog.reviewIds().size());
+
+            List<String> applicationArgs = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--spring.data.mongodb.uri=" + mongoUri,
+                    "--spring.data.mongodb.database=" + DATABASE,
+                    "--spring.data.mongodb.auto-index-creation=false",
+                    "--reviews.cleanup.sweep.enabled=false",
+                    "--spring.main.banner-mode=off",
+                    "--logging.level.root=WARN"));
+            applicationArgs.addAll(Arrays.asList(args));
+            try (ConfigurableApplicationContext application = SpringApplication.run(MovieReviewApplication.class,
+                    applicationArgs.toArray(String[]::new))) {
+                int port = application.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                OpenModelGenerator generator = new OpenModelGenerator(URI.create("http://localhost:" + port), catalog, settings);
+
+                System.out.printf("Warming up for %s at %d requests per second%n", settings.warmup(), settings.rate());
+                generator.run(settings.warmup());
+                System.out.printf("Measuring for %s at %d requests per second%n", settings.duration(), settings.rate());
+                OpenModelGenerator.LoadResult result = generator.run(settings.duration());
+
+                System.out.println(LoadReport.write(settings, result));
+                System.out.println("Report written to " + settings.reportDirectory().toAbsolutePath());
+            }
+        } finally {
+            mongoServer.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.md.MovieReview.MovieReview.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * This record holds the settings of a load test run, read from "loadtest.*" system properties.
+ *
+ * @param movies is the number of movies in the synthetic catalog.
+ * @param reviewsPerMovie is the number of reviews seeded for every movie.
+ * @param rate is the number of requests started per second, whatever the response times are.
+ * @param warmup is how long the load is applied before measuring, the results of the warmup are discarded.
+ * @param duration is how long the load is measured.
+ * @param seed seeds the catalog and the request schedule, so two runs send the same requests in the same order.
+ * @param mix is the relative weight of every operation.
+ * @param reportDirectory is where the report is written.
+ */
+record LoadTestSettings(int movies, int reviewsPerMovie, int rate, Duration warmup, Duration duration, long seed,
+                        Map<Operation, Integer> mix, Path reportDirectory) {
+
+    /**
+     * This method reads the settings, falling back to a run of about a minute against a thousand movies.
+     *
+     * @return the settings of this run.
+     * @throws IllegalArgumentException if the mix names an unknown operation.
+     */
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("loadtest.movies", 1000),
+                Integer.getInteger("loadtest.reviews-per-movie", 20),
+                Integer.getInteger("loadtest.rate", 200),
+                Duration.parse(System.getProperty("loadtest.warmup", "PT10S")),
+                Duration.parse(System.getProperty("loadtest.duration", "PT60S")),
+                Long.getLong("loadtest.seed", 42),
+                parseMix(System.getProperty("loadtest.mix", "movie=60,page=10,reviews=15,create=10,update=5")),
+                Path.of(System.getProperty("loadtest.report-dir", "target/loadtest")));
+    }
+
+    /**
+     * This method parses a mix such as "movie=60,page=10,reviews=15,create=10,update=5".
+     *
+     * @throws IllegalArgumentException if an entry is malformed or names an unknown operation.
+     */
+    static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] weight = entry.trim().split("=");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Malformed mix entry: " + entry);
+            }
+            mix.put(Operation.fromName(weight[0].trim()), Integer.parseInt(weight[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,64 @@
+package com.md.MovieReview.MovieReview.loadtest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoadTestSettingsTest {
+
+    private static final List<String> PROPERTIES = List.of("loadtest.movies", "loadtest.rate", "loadtest.duration",
+            "loadtest.mix", "loadtest.report-dir");
+
+    @AfterEach
+    void tearDown() {
+        PROPERTIES.forEach(System::clearProperty);
+    }
+
+    @Test
+    void parsesTheMixIgnoringBlanks() {
+        Map<Operation, Integer> mix = LoadTestSettings.parseMix(" movie = 60, reviews=15 ,update=5");
+
+        assertThat(mix).containsExactly(Map.entry(Operation.MOVIE, 60), Map.entry(Operation.REVIEWS, 15),
+                Map.entry(Operation.UPDATE, 5));
+    }
+
+    @Test
+    void rejectsAMalformedMixEntry() {
+        assertThatThrownBy(() -> LoadTestSettings.parseMix("movie=60,page"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("page");
+    }
+
+    @Test
+    void rejectsAnUnknownOperation() {
+        assertThatThrownBy(() -> LoadTestSettings.parseMix("movie=60,search=10"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void readsTheSystemPropertiesOverTheDefaults() {
+        System.setProperty("loadtest.movies", "50");
+        System.setProperty("loadtest.rate", "500");
+        System.setProperty("loadtest.duration", "PT2M");
+        System.setProperty("loadtest.mix", "create=1");
+        System.setProperty("loadtest.report-dir", "build/report");
+
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+
+        assertThat(settings.movies()).isEqualTo(50);
+        assertThat(settings.rate()).isEqualTo(500);
+        assertThat(settings.duration()).isEqualTo(Duration.ofMinutes(2));
+        assertThat(settings.mix()).containsExactly(Map.entry(Operation.CREATE, 1));
+        assertThat(settings.reportDirectory()).isEqualTo(Path.of("build/report"));
+        assertThat(settings.reviewsPerMovie()).isEqualTo(20);
+        assertThat(settings.warmup()).isEqualTo(Duration.ofSeconds(10));
+        assertThat(settings.seed()).isEqualTo(42);
+    }
+}
@@ -0,0 +1,117 @@
+package com.md.MovieReview.MovieReview.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * This class applies an open-model load: requests are started at a fixed average rate, with exponentially distributed
+ * gaps, whether or not earlier responses have arrived, the way independent users arrive at a real service.
+ *
+ * <p>The latency of a request is measured from the time it was scheduled to start, not from the time it was sent,
+ * so a stalled server is charged for every request that queued up behind it instead of hiding the stall
+ * (coordinated omission). Latencies are recorded in microseconds into one HdrHistogram per operation.
+ */
+final class OpenModelGenerator {
+
+    /**
+     * Time given to the requests still in flight once the schedule has ended.
+     */
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI baseUri;
+    private final Catalog catalog;
+    private final LoadTestSettings settings;
+    private final Random random;
+    private final Operation[] weightedOperations;
+    private final HttpClient client;
+
+    OpenModelGenerator(URI baseUri, Catalog catalog, LoadTestSettings settings) {
+        this.baseUri = baseUri;
+        this.catalog = catalog;
+        this.settings = settings;
+        this.random = new Random(settings.seed());
+        this.weightedOperations = settings.mix().entrySet().stream()
+                .flatMap(weight -> Stream.generate(weight::getKey).limit(weight.getValue()))
+                .toArray(Operation[]::new);
+        if (weightedOperations.length == 0) {
+            throw new IllegalArgumentException("The mix must give at least one operation a positive weight");
+        }
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * This method applies the load for the given time and waits for the responses still in flight.
+     *
+     * @param duration is how long requests are started.
+     * @return the latencies and errors per operation.
+     * @throws InterruptedException if interrupted while waiting for the responses.
+     */
+    LoadResult run(Duration duration) throws InterruptedException {
+        Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(3));
+            errors.put(operation, new LongAdder());
+        }
+        AtomicLong inFlight = new AtomicLong();
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / (double) settings.rate();
+
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        double scheduled = start;
+        while (true) {
+            scheduled += -Math.log(1 - random.nextDouble()) * meanGapNanos;
+            long intendedStart = (long) scheduled;
+            if (intendedStart >= end) {
+                break;
+            }
+            Operation operation = weightedOperations[random.nextInt(weightedOperations.length)];
+            HttpRequest request = operation.request(baseUri, catalog, random);
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.incrementAndGet();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                latencies.get(operation).recordValue(Math.max(1, (System.nanoTime() - intendedStart) / 1000));
+                if (error != null || response.statusCode() >= 400) {
+                    errors.get(operation).increment();
+                }
+                inFlight.decrementAndGet();
+            });
+        }
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0) {
+            if (System.nanoTime() > drainDeadline) {
+                throw new IllegalStateException(inFlight.get() + " responses were still pending " + DRAIN_TIMEOUT + " after the load ended");
+            }
+            Thread.sleep(10);
+        }
+        return new LoadResult(duration, latencies, errors);
+    }
+
+    /**
+     * The latencies, in microseconds, and the error counts recorded by one run.
+     */
+    record LoadResult(Duration duration, Map<Operation, Histogram> latencies, Map<Operation, LongAdder> errors) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.md.MovieReview.MovieReview.loadtest;
+
+import org.bson.types.ObjectId;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * This enum lists the requests of the workload. Every request picks its movie from the seeded catalog,
+ * with 80% of the requests going to the most popular fifth of the movies.
+ */
+enum Operation {
+
+    /**
+     * GET /api/v1/movies/{imdbId}.
+     */
+    MOVIE {
+        @Override
+        HttpRequest request(URI baseUri, Catalog catalog, Random random) {
+            return get(baseUri, "/api/v1/movies/" + catalog.pickImdbId(random));
+        }
+    },
+
+    /**
+     * GET /api/v1/movies/page, the first page of 20 movies.
+     */
+    PAGE {
+        @Override
+        HttpRequest request(URI baseUri, Catalog catalog, Random random) {
+            return get(baseUri, "/api/v1/movies/page?limit=20");
+        }
+    },
+
+    /**
+     * GET /api/v1/movies/{imdbId}/reviews, the newest page of reviews.
+     */
+    REVIEWS {
+        @Override
+        HttpRequest request(URI baseUri, Catalog catalog, Random random) {
+            return get(baseUri, "/api/v1/movies/" + catalog.pickImdbId(random) + "/reviews");
+        }
+    },
+
+    /**
+     * POST /api/v1/reviews/addReview.
+     */
+    CREATE {
+        @Override
+        HttpRequest request(URI baseUri, Catalog catalog, Random random) {
+            String body = "{\"reviewBody\":\"Load test review " + random.nextInt(1_000_000) + "\",\"imdbId\":\""
+                    + catalog.pickImdbId(random) + "\"}";
+            return HttpRequest.newBuilder(baseUri.resolve("/api/v1/reviews/addReview"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+    },
+
+    /**
+     * PUT /api/v1/reviews/updateReview/{id} on a seeded review.
+     */
+    UPDATE {
+        @Override
+        HttpRequest request(URI baseUri, Catalog catalog, Random random) {
+            ObjectId reviewId = catalog.pickReviewId(random);
+            String body = "{\"reviewMessage\":\"Edited by the load test " + random.nextInt(1_000_000) + "\"}";
+            return HttpRequest.newBuilder(baseUri.resolve("/api/v1/reviews/updateReview/" + reviewId.toHexString()))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+    };
+
+    /**
+     * This method builds the next request of this operation.
+     *
+     * @param baseUri is the address of the application.
+     * @param catalog is the seeded catalog the request picks its movie or review from.
+     * @param random is the random source of the schedule, so the same seed builds the same requests.
+     * @return the request to send.
+     */
+    abstract HttpRequest request(URI baseUri, Catalog catalog, Random random);
+
+    /**
+     * @return the operation with the given lower case name, as used in "loadtest.mix".
+     * @throws IllegalArgumentException if there is no such operation.
+     */
+    static Operation fromName(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * @return the lower case name of the operation, as used in "loadtest.mix" and in the report.
+     */
+    String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    private static HttpRequest get(URI baseUri, String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).GET().build();
+    }
+}
@@ -0,0 +1,34 @@
+package com.md.MovieReview.MovieReview.config;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.md.MovieReview.MovieReview.document.Movie;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This configuration lets a response narrow the JSON of its movies to a sparse fieldset.
+ *
+ * <p>Movie is serialized through the "movieFields" property filter, which writes every property by default, so the
+ * regular JSON is unchanged and still carries null fields. Responses to a "fields=" request replace it with a filter
+ * keeping only the requested fields, see MovieFieldsResponseAdvice. The filter is added through a mix-in on the
+ * application's ObjectMapper only, other mappers serialize Movie as before.
+ */
+@Configuration
+public class JsonConfig {
+
+    public static final String MOVIE_FIELDS_FILTER = "movieFields";
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer movieFieldsFilterCustomizer() {
+        return builder -> builder
+                .mixIn(Movie.class, MovieFieldsFilterMixIn.class)
+                .filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    @JsonFilter(MOVIE_FIELDS_FILTER)
+    private abstract static class MovieFieldsFilterMixIn {
+    }
+}
@@ -0,0 +1,29 @@
+package com.md.MovieReview.MovieReview.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This configuration adds the metrics which Spring Boot does not provide out of the box.
+ *
+ * <p>Spring Boot already records "http.server.requests" per endpoint, "mongodb.driver.commands" per command and collection,
+ * and the "mongodb.driver.pool.*" gauges. On top of that, the TimedAspect turns the @Timed annotations on the services
+ * into timers, and MongoCommandDocumentsListener records how many documents every command returned or touched.
+ * Percentiles are configured in application.properties.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer commandDocumentsListenerCustomizer(MeterRegistry meterRegistry) {
+        return settings -> settings.addCommandListener(new MongoCommandDocumentsListener(meterRegistry));
+    }
+}
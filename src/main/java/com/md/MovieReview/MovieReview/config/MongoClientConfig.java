@@ -0,0 +1,36 @@
+package com.md.MovieReview.MovieReview.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This configuration sizes the MongoDB driver connection pool from the "app.mongo.pool.*" properties.
+ *
+ * <p>With virtual threads ("spring.threads.virtual.enabled") the number of concurrent requests is no longer capped by Tomcat,
+ * so the pool becomes the bottleneck. The pool should be large enough for the expected number of concurrent queries, and
+ * the wait time short enough that requests fail fast under overload instead of piling up behind the pool. The defaults are
+ * 50 connections, 10 of them kept open, and a 500ms wait instead of the driver's 100 connections and two minutes.
+ *
+ * <p>The settings apply whatever the threading and serving mode, on purpose: the write admission limit and the sweeper's
+ * pool usage threshold are computed from "app.mongo.pool.max-size", so the pool has to be that size in every mode.
+ */
+@Configuration
+public class MongoClientConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolCustomizer(@Value("${app.mongo.pool.max-size:50}") int maxSize,
+                                                                         @Value("${app.mongo.pool.min-size:10}") int minSize,
+                                                                         @Value("${app.mongo.pool.max-connecting:2}") int maxConnecting,
+                                                                         @Value("${app.mongo.pool.max-wait:500ms}") Duration maxWait) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxSize)
+                .minSize(minSize)
+                .maxConnecting(maxConnecting)
+                .maxWaitTime(maxWait.toMillis(), TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,87 @@
+package com.md.MovieReview.MovieReview.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This MongoDB command listener records the number of documents each command returned or modified,
+ * as the "mongodb.driver.commands.documents" distribution tagged by command and collection.
+ * It is the companion of Spring Boot's "mongodb.driver.commands" timer and shows which reads fan out into large results.
+ *
+ * <p>The collection is only part of the started event, so it is remembered by request id until the command completes.
+ */
+public class MongoCommandDocumentsListener implements CommandListener {
+
+    private static final String METRIC_NAME = "mongodb.driver.commands.documents";
+    private static final String UNKNOWN_COLLECTION = "unknown";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Integer, String> collectionsByRequest = new ConcurrentHashMap<>();
+
+    public MongoCommandDocumentsListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String collection = collectionOf(event.getCommandName(), event.getCommand());
+        if (collection != null) {
+            collectionsByRequest.put(event.getRequestId(), collection);
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        String collection = collectionsByRequest.remove(event.getRequestId());
+        DistributionSummary.builder(METRIC_NAME)
+                .description("Number of documents returned or modified by a MongoDB command")
+                .tag("command", event.getCommandName())
+                .tag("collection", collection == null ? UNKNOWN_COLLECTION : collection)
+                .register(meterRegistry)
+                .record(documentCount(event.getResponse()));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        collectionsByRequest.remove(event.getRequestId());
+    }
+
+    /**
+     * Most commands carry the collection as the value of the command name, getMore carries it in "collection".
+     */
+    private static String collectionOf(String commandName, BsonDocument command) {
+        BsonValue value = "getMore".equals(commandName) ? command.get("collection") : command.get(commandName);
+        return value != null && value.isString() ? value.asString().getValue() : null;
+    }
+
+    /**
+     * Cursor commands report their batch, writes report "n" and findAndModify reports the matched document in "value".
+     */
+    private static long documentCount(BsonDocument response) {
+        BsonDocument cursor = response.isDocument("cursor") ? response.getDocument("cursor") : null;
+        if (cursor != null) {
+            if (cursor.isArray("firstBatch")) {
+                return cursor.getArray("firstBatch").size();
+            }
+            if (cursor.isArray("nextBatch")) {
+                return cursor.getArray("nextBatch").size();
+            }
+        }
+        if (response.isNumber("n")) {
+            return response.getNumber("n").longValue();
+        }
+        if (response.containsKey("value")) {
+            return response.isNull("value") ? 0 : 1;
+        }
+        return 0;
+    }
+}
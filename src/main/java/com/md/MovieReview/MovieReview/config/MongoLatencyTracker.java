@@ -0,0 +1,73 @@
+package com.md.MovieReview.MovieReview.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This MongoDB command listener keeps a time-decayed average of the duration of the write commands (insert, update,
+ * delete and findAndModify), successful or failed. It is the latency signal WriteAdmissionLimiter adapts the write limit
+ * to; reads are left out, so a slow report or export does not throttle the writes.
+ *
+ * <p>Every duration weighs the same when it is recorded, and its weight halves every "half-life" after that, so the
+ * average follows a slowdown within about a half-life however many writes arrive, while a single slow write among many
+ * barely moves it.
+ */
+public class MongoLatencyTracker implements CommandListener {
+
+    private static final Set<String> WRITE_COMMANDS = Set.of("insert", "update", "delete", "findAndModify", "findandmodify");
+
+    private final double halfLifeNanos;
+
+    private double weightedSum;
+    private double weight;
+    private long lastRecordedAt;
+
+    public MongoLatencyTracker(Duration halfLife) {
+        this.halfLifeNanos = Math.max(1, halfLife.toNanos());
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        if (WRITE_COMMANDS.contains(event.getCommandName())) {
+            record(event.getElapsedTime(TimeUnit.NANOSECONDS), System.nanoTime());
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        if (WRITE_COMMANDS.contains(event.getCommandName())) {
+            record(event.getElapsedTime(TimeUnit.NANOSECONDS), System.nanoTime());
+        }
+    }
+
+    /**
+     * Below method returns the decayed average of the write durations, 0 until the first write completed.
+     *
+     * @return the average in nanoseconds.
+     */
+    public synchronized long averageNanos() {
+        return weight == 0 ? 0 : (long) (weightedSum / weight);
+    }
+
+    /**
+     * This method adds a write duration, fading the earlier ones by the time passed since the last one.
+     *
+     * @param nanos is the duration of the write.
+     * @param now is the current {@link System#nanoTime()}.
+     */
+    synchronized void record(long nanos, long now) {
+        if (weight > 0) {
+            double decay = Math.pow(0.5, Math.max(0, now - lastRecordedAt) / halfLifeNanos);
+            weightedSum *= decay;
+            weight *= decay;
+        }
+        weightedSum += nanos;
+        weight += 1;
+        lastRecordedAt = now;
+    }
+}
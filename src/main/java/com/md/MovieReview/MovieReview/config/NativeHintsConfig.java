@@ -0,0 +1,65 @@
+package com.md.MovieReview.MovieReview.config;
+
+import com.md.MovieReview.MovieReview.document.BucketedReview;
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.MovieSummary;
+import com.md.MovieReview.MovieReview.document.Review;
+import com.md.MovieReview.MovieReview.document.ReviewBucket;
+import com.md.MovieReview.MovieReview.dto.BulkReviewItemResult;
+import com.md.MovieReview.MovieReview.dto.BulkReviewResult;
+import com.md.MovieReview.MovieReview.dto.FacetCount;
+import com.md.MovieReview.MovieReview.dto.MovieBrowseResult;
+import com.md.MovieReview.MovieReview.dto.MovieCacheStats;
+import com.md.MovieReview.MovieReview.dto.MoviePage;
+import com.md.MovieReview.MovieReview.dto.MovieSummaryPage;
+import com.md.MovieReview.MovieReview.dto.ReviewPage;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.data.mongodb.core.mapping.DocumentReference;
+
+import java.util.List;
+
+/**
+ * This configuration contributes the reflection hints a GraalVM native image of the application needs, see the
+ * "production" Maven profile. They are only read by the AOT processing and have no effect on a regular JVM.
+ *
+ * <p>The documents are read and written by the MongoDB mapping layer through their fields and their Lombok generated
+ * constructors and accessors, and are serialized by Jackson like the DTOs, whose properties are registered for binding
+ * down to their nested types. The @DocumentReference annotation on Movie.reviewIds is registered so the mapping layer
+ * can still read its attributes when resolving the reviews of a movie.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.MovieReviewRuntimeHints.class)
+public class NativeHintsConfig {
+
+    static final List<Class<?>> DOCUMENTS = List.of(Movie.class, Review.class, ReviewBucket.class, BucketedReview.class,
+            MovieSummary.class);
+
+    static final List<Class<?>> DTOS = List.of(BulkReviewItemResult.class, BulkReviewResult.class, FacetCount.class,
+            MovieBrowseResult.class, MovieCacheStats.class, MoviePage.class, MovieSummaryPage.class, ReviewPage.class);
+
+    /**
+     * Registers the hints described on NativeHintsConfig.
+     */
+    static class MovieReviewRuntimeHints implements RuntimeHintsRegistrar {
+
+        private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (Class<?> document : DOCUMENTS) {
+                hints.reflection().registerType(document,
+                        MemberCategory.DECLARED_FIELDS,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_DECLARED_METHODS);
+            }
+            bindingRegistrar.registerReflectionHints(hints.reflection(), DOCUMENTS.toArray(Class<?>[]::new));
+            bindingRegistrar.registerReflectionHints(hints.reflection(), DTOS.toArray(Class<?>[]::new));
+            hints.reflection().registerType(DocumentReference.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.md.MovieReview.MovieReview.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * This configuration enables the background jobs declared with @Scheduled, such as the review reference cleanup.
+ * They run on Spring Boot's single scheduler thread, so they never run concurrently with each other.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
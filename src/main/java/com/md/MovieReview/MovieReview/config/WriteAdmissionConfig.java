@@ -0,0 +1,68 @@
+package com.md.MovieReview.MovieReview.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * This configuration puts the write endpoints of the servlet stack behind an adaptive admission limit, so a storm of
+ * review writes is shed with 429 responses instead of taking the MongoDB connection pool away from the reads.
+ * It is switched off with "app.admission.writes.enabled=false".
+ *
+ * <p>API writes are capped at the pool size ("app.mongo.pool.max-size") minus "app.admission.reads.reserved"
+ * connections. Background writes are not capped, so this leaves room for reads rather than reserving it.
+ * Admitted and queued writes also hold request threads, so on Tomcat's worker pool keep the pool size plus
+ * "app.admission.writes.queue-capacity" well below "server.tomcat.threads.max" (200 by default).
+ * See WriteAdmissionLimiter for how the limit follows MongoDB latency.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "app.admission.writes.enabled", havingValue = "true")
+public class WriteAdmissionConfig {
+
+    /**
+     * Runs after the observation filter, so rejected writes are still recorded in "http.server.requests".
+     */
+    private static final int FILTER_ORDER = Ordered.HIGHEST_PRECEDENCE + 10;
+
+    @Bean
+    public MongoLatencyTracker mongoLatencyTracker(@Value("${app.admission.writes.latency-half-life:2s}") Duration halfLife) {
+        return new MongoLatencyTracker(halfLife);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer latencyTrackerCustomizer(MongoLatencyTracker mongoLatencyTracker) {
+        return settings -> settings.addCommandListener(mongoLatencyTracker);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public WriteAdmissionLimiter writeAdmissionLimiter(MongoLatencyTracker mongoLatencyTracker, MeterRegistry meterRegistry,
+                                                       @Value("${app.admission.writes.initial-limit:20}") int initialLimit,
+                                                       @Value("${app.admission.writes.min-limit:2}") int minLimit,
+                                                       @Value("${app.mongo.pool.max-size:50}") int poolMaxSize,
+                                                       @Value("${app.admission.reads.reserved:20}") int readsReserved,
+                                                       @Value("${app.admission.writes.queue-capacity:50}") int queueCapacity,
+                                                       @Value("${app.admission.writes.max-wait:100ms}") Duration maxWait,
+                                                       @Value("${app.admission.writes.target-latency:50ms}") Duration targetLatency,
+                                                       @Value("${app.admission.writes.adjust-interval-ms:500}") long adjustIntervalMillis) {
+        return new WriteAdmissionLimiter(mongoLatencyTracker, meterRegistry, initialLimit, minLimit, poolMaxSize - readsReserved,
+                queueCapacity, maxWait, targetLatency, Duration.ofMillis(adjustIntervalMillis));
+    }
+
+    @Bean
+    public FilterRegistrationBean<WriteAdmissionFilter> writeAdmissionFilter(WriteAdmissionLimiter writeAdmissionLimiter,
+                                                                             @Value("${app.admission.writes.retry-after:1s}") Duration retryAfter) {
+        FilterRegistrationBean<WriteAdmissionFilter> registration =
+                new FilterRegistrationBean<>(new WriteAdmissionFilter(writeAdmissionLimiter, retryAfter));
+        registration.setOrder(FILTER_ORDER);
+        return registration;
+    }
+}
@@ -0,0 +1,172 @@
+package com.md.MovieReview.MovieReview.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class bounds how many write requests run at once, and how many may wait for their turn.
+ *
+ * <p>A request is admitted while fewer than the current limit are in flight and nobody is waiting. Otherwise it waits,
+ * in arrival order, for at most "app.admission.writes.max-wait" behind at most "app.admission.writes.queue-capacity"
+ * others, and is rejected when the queue is full or the wait runs out, so a burst of writes is shed in milliseconds
+ * instead of holding request threads and MongoDB connections. Every waiting request has a condition of its own and only
+ * the head of the queue is signalled, so a freed slot always goes to the longest waiting request, never to a newcomer.
+ *
+ * <p>The limit adapts to MongoDB (additive increase, multiplicative decrease): every adjust interval, while the
+ * average duration of the write commands is above "app.admission.writes.target-latency" it is cut by a quarter, down to
+ * "app.admission.writes.min-limit"; otherwise, if writes had to wait during the interval, it grows by one. It never
+ * grows beyond the connection pool size minus "app.admission.reads.reserved". That bounds the connections held by the
+ * API writes only: background writers such as the cleanup and the summary pipeline are not limited, so the reserve
+ * leaves room for reads without guaranteeing it.
+ *
+ * <p>The limit is adjusted on a thread of its own, started with the limiter and stopped by {@link #shutdown()}.
+ */
+public class WriteAdmissionLimiter {
+
+    private static final double DECREASE_FACTOR = 0.75;
+
+    private final MongoLatencyTracker latencyTracker;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueCapacity;
+    private final long maxWaitNanos;
+    private final long targetLatencyNanos;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final ArrayDeque<Condition> queue = new ArrayDeque<>();
+    private volatile int limit;
+    private volatile int inFlight;
+    private volatile int waiting;
+    private boolean saturated;
+    private final ScheduledExecutorService adjuster;
+
+    public WriteAdmissionLimiter(MongoLatencyTracker latencyTracker, MeterRegistry meterRegistry, int initialLimit,
+                                 int minLimit, int maxLimit, int queueCapacity, Duration maxWait, Duration targetLatency,
+                                 Duration adjustInterval) {
+        this.latencyTracker = latencyTracker;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.queueCapacity = Math.max(0, queueCapacity);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.targetLatencyNanos = targetLatency.toNanos();
+
+        this.rejectedQueueFull = Counter.builder("writes.admission.rejected").tag("reason", "queue-full").register(meterRegistry);
+        this.rejectedTimeout = Counter.builder("writes.admission.rejected").tag("reason", "timeout").register(meterRegistry);
+        Gauge.builder("writes.admission.limit", this, limiter -> limiter.limit).register(meterRegistry);
+        Gauge.builder("writes.admission.in-flight", this, limiter -> limiter.inFlight).register(meterRegistry);
+        Gauge.builder("writes.admission.queued", this, limiter -> limiter.waiting).register(meterRegistry);
+        TimeGauge.builder("writes.admission.mongodb.latency", latencyTracker, TimeUnit.NANOSECONDS,
+                MongoLatencyTracker::averageNanos).register(meterRegistry);
+
+        this.adjuster = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("write-admission-adjust").daemon().factory());
+        long intervalNanos = Math.max(1, adjustInterval.toNanos());
+        adjuster.scheduleWithFixedDelay(this::adjust, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * This method admits a write, waiting for its turn if the limit is reached or others wait, and the queue is not full.
+     * Every admitted write must be followed by {@link #release()}.
+     *
+     * @return true if the write was admitted, false if it has to be rejected.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean tryAcquire() throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < limit && queue.isEmpty()) {
+                inFlight++;
+                return true;
+            }
+            saturated = true;
+            if (queue.size() >= queueCapacity) {
+                rejectedQueueFull.increment();
+                return false;
+            }
+            Condition turn = lock.newCondition();
+            queue.addLast(turn);
+            waiting = queue.size();
+            try {
+                long remaining = maxWaitNanos;
+                while (queue.peekFirst() != turn || inFlight >= limit) {
+                    if (remaining <= 0) {
+                        rejectedTimeout.increment();
+                        return false;
+                    }
+                    remaining = turn.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } finally {
+                queue.remove(turn);
+                waiting = queue.size();
+                // Admitted or given up, the next one may have its turn now.
+                signalHead();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Frees the slot of a completed write and hands it to the longest waiting one.
+     */
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            signalHead();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wakes the longest waiting write if a slot is free, called with the lock held.
+     */
+    private void signalHead() {
+        Condition head = queue.peekFirst();
+        if (head != null && inFlight < limit) {
+            head.signal();
+        }
+    }
+
+    /**
+     * This method moves the limit towards what MongoDB currently sustains, see the class description.
+     * It runs every adjust interval.
+     */
+    void adjust() {
+        long latency = latencyTracker.averageNanos();
+        lock.lock();
+        try {
+            if (latency > targetLatencyNanos) {
+                limit = Math.max(minLimit, (int) (limit * DECREASE_FACTOR));
+            } else if (saturated && limit < maxLimit) {
+                limit++;
+                signalHead();
+            }
+            saturated = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops adjusting the limit, the limiter keeps admitting writes with the last one.
+     */
+    public void shutdown() {
+        adjuster.shutdownNow();
+    }
+}
@@ -1,13 +1,29 @@
 package com.md.MovieReview.MovieReview.controller;
 
 import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.dto.MovieBrowseResult;
+import com.md.MovieReview.MovieReview.dto.MovieCacheStats;
+import com.md.MovieReview.MovieReview.dto.MoviePage;
+import com.md.MovieReview.MovieReview.dto.MovieSummaryPage;
+import com.md.MovieReview.MovieReview.dto.ReviewPage;
+import com.md.MovieReview.MovieReview.service.MovieFields;
 import com.md.MovieReview.MovieReview.service.MovieService;
+import com.md.MovieReview.MovieReview.service.MovieSortKey;
+import com.md.MovieReview.MovieReview.service.ReviewResolution;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,25 +37,156 @@ import java.util.Optional;
  * @since 2023-06-24
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/v1/movies")
 public class MovieController {
 
     private final MovieService movieService;
+    private final CacheControl movieCacheControl;
 
     @Autowired
-    public MovieController(MovieService movieService) {
+    public MovieController(MovieService movieService, @Value("${movies.http.max-age:0s}") Duration maxAge) {
         this.movieService = movieService;
+        this.movieCacheControl = maxAge.isZero() ? CacheControl.noCache().cachePublic() : CacheControl.maxAge(maxAge).cachePublic();
     }
 
     /**
      * Below is the method used for fetching all the movies from the database.
      * Leveraging the getAll() methods from Hibernate JPA repository.
      *
-     * @return a 200k response upon successfully fetching movie.
+     * @param fields is a comma separated list of the fields to return, e.g. "imdbId,title,poster", omitted for all fields.
+     * @return a 200k response upon successfully fetching movie, or a 400 response if a field is unknown.
      */
     @GetMapping
-    public ResponseEntity<List<Movie>> getAllMovies(){
-        return new ResponseEntity<List<Movie>>(movieService.getAllMovies(), HttpStatus.OK);
+    public ResponseEntity<List<Movie>> getAllMovies(@RequestParam(required = false) String fields){
+        try {
+            return new ResponseEntity<List<Movie>>(movieService.getAllMovies(MovieFields.fromParameter(fields)), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Below method streams the whole movie catalog as newline-delimited JSON (one movie per line).
+     * Unlike getAllMovies(), the movies are never collected into a list, they are written to the response while the
+     * database cursor is being read, which keeps memory use constant for exports of any size.
+     *
+     * @param includeReviews whether the referenced reviews are resolved, indexers that only need the movies can pass false.
+     * @return a 200k response whose body is written incrementally.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportMovies(@RequestParam(defaultValue = "true") boolean includeReviews){
+        StreamingResponseBody body = out -> movieService.exportMovies(includeReviews, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Below method fetches the movies one page at a time using keyset pagination.
+     * The response carries a "nextCursor" which is passed back as the "cursor" parameter to get the following page,
+     * it is null once the last page has been returned.
+     *
+     * @param limit is the maximum number of movies on the page (1 to 100).
+     * @param cursor is the cursor returned with the previous page, omitted for the first page.
+     * @param sort is the sort key, either "id" (default) or "releaseDate".
+     * @param reviews is how the reviews are returned: "full" (default), "references" for the ids only, or "none".
+     * @param fields is a comma separated list of the fields to return, omitted for all fields.
+     * @return a 200k response with the page, or a 400 response if a parameter is invalid.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<MoviePage> getMoviePage(@RequestParam(defaultValue = "20") int limit,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "id") String sort,
+                                                  @RequestParam(defaultValue = "full") String reviews,
+                                                  @RequestParam(required = false) String fields){
+        try {
+            MoviePage page = movieService.getMoviePage(limit, cursor, MovieSortKey.fromParameter(sort), ReviewResolution.fromParameter(reviews),
+                    MovieFields.fromParameter(fields));
+            return new ResponseEntity<MoviePage>(page, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Below method searches movies by the words of their title and of their reviews, ranked by relevance.
+     * It is backed by MongoDB text indexes on Movie.title and Review.body.
+     *
+     * @param q is the search text.
+     * @param page is the zero-based page number.
+     * @param size is the page size (1 to 100).
+     * @param reviews is how the reviews are returned: "none" (default), "references" or "full".
+     * @param fields is a comma separated list of the fields to return, omitted for all fields.
+     * @return a 200k response with the matching movies, best match first, or a 400 response if a parameter is invalid.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<Movie>> searchMovies(@RequestParam String q,
+                                                    @RequestParam(defaultValue = "0") int page,
+                                                    @RequestParam(defaultValue = "20") int size,
+                                                    @RequestParam(defaultValue = "none") String reviews,
+                                                    @RequestParam(required = false) String fields){
+        if (q.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return new ResponseEntity<List<Movie>>(movieService.searchMovies(q, page, size, ReviewResolution.fromParameter(reviews),
+                    MovieFields.fromParameter(fields)), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Below method browses movies by genre and release date range, e.g. "Action movies from 2019 to 2023, newest first".
+     * Along with the page of movies it returns the total number of matches and facet counts per genre and per release year.
+     *
+     * @param genre is the genre the movies must have, omitted for all genres.
+     * @param from is the first release day included (yyyy-MM-dd), omitted for no lower bound.
+     * @param to is the last release day included (yyyy-MM-dd), omitted for no upper bound.
+     * @param sort is either "newest" (default) or "oldest".
+     * @param page is the zero-based page number.
+     * @param size is the page size (1 to 100).
+     * @param reviews is how the reviews are returned: "none" (default), "references" or "full".
+     * @return a 200k response with the page and the facets, or a 400 response if a parameter is invalid.
+     */
+    @GetMapping("/browse")
+    public ResponseEntity<MovieBrowseResult> browseMovies(@RequestParam(required = false) String genre,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                          @RequestParam(defaultValue = "newest") String sort,
+                                                          @RequestParam(defaultValue = "0") int page,
+                                                          @RequestParam(defaultValue = "20") int size,
+                                                          @RequestParam(defaultValue = "none") String reviews){
+        if (!"newest".equalsIgnoreCase(sort) && !"oldest".equalsIgnoreCase(sort)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            MovieBrowseResult result = movieService.browseMovies(genre, from, to, "newest".equalsIgnoreCase(sort), page, size,
+                    ReviewResolution.fromParameter(reviews));
+            return new ResponseEntity<MovieBrowseResult>(result, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Below method fetches the most reviewed movies, for leaderboards.
+     * It is served from the index on the denormalized review count.
+     *
+     * @param limit is the number of movies to return (1 to 100).
+     * @param reviews is how the reviews are returned: "none" (default), "references" or "full".
+     * @param fields is a comma separated list of the fields to return, omitted for all fields.
+     * @return a 200k response with the movies ordered by review count, or a 400 response if a parameter is invalid.
+     */
+    @GetMapping("/top")
+    public ResponseEntity<List<Movie>> getTopMovies(@RequestParam(defaultValue = "10") int limit,
+                                                    @RequestParam(defaultValue = "none") String reviews,
+                                                    @RequestParam(required = false) String fields){
+        try {
+            return new ResponseEntity<List<Movie>>(movieService.getTopMovies(limit, ReviewResolution.fromParameter(reviews),
+                    MovieFields.fromParameter(fields)), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /*
@@ -60,12 +207,118 @@ public class MovieController {
      * Note that imdbId here does not refer to default id which hibernates uses to search for any object/record in a database.
      * Therefore, we have defined a specific method in Movie repository which fetches data with imdbId.
      *
+     * <p>The response carries the movie's version as a strong ETag. When the request sends it back in If-None-Match and the
+     * movie is unchanged, a 304 is returned after reading only the version, without loading or serializing the movie.
+     * Each fieldset is a representation of its own, so the requested fields are part of the ETag.
+     *
      * @param imdbId is one of the unique identifiers in a database linked to specific books
-     * @return a 200k response upon successfully fetching movie.
+     * @param fields is a comma separated list of the fields to return, omitted for all fields.
+     * @param ifNoneMatch are the ETags the client already has, if any.
+     * @return a 200k response upon successfully fetching movie, a 304 response if the client's copy is current,
+     * or a 400 response if a field is unknown.
      */
     @GetMapping("/{imdbId}")
-    public ResponseEntity<Optional<Movie>> getMovieByImdbId(@PathVariable String imdbId){
-        return new ResponseEntity<Optional<Movie>>(movieService.singleMovieByImdbId(imdbId), HttpStatus.OK);
+    public ResponseEntity<Optional<Movie>> getMovieByImdbId(@PathVariable String imdbId,
+                                                            @RequestParam(required = false) String fields,
+                                                            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch){
+        MovieFields fieldset;
+        try {
+            fieldset = MovieFields.fromParameter(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (ifNoneMatch != null) {
+            Optional<Long> version = movieService.currentVersion(imdbId);
+            if (version.isPresent() && etagMatches(ifNoneMatch, etag(version.get(), fieldset))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag(version.get(), fieldset))
+                        .cacheControl(movieCacheControl)
+                        .build();
+            }
+        }
+        Optional<Movie> movie = movieService.singleMovieByImdbId(imdbId, fieldset);
+        if (movie.isEmpty()) {
+            return new ResponseEntity<Optional<Movie>>(movie, HttpStatus.OK);
+        }
+        Long version = movie.get().getVersion();
+        String etag = etag(version == null ? 0 : version, fieldset);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(movieCacheControl)
+                .body(movie.map(fieldset::strip));
+    }
+
+    private static String etag(long version, MovieFields fields) {
+        // The fieldset is hashed, since the commas of the field list would split the tag inside If-None-Match.
+        return fields.isAll() ? "\"v" + version + "\""
+                : "\"v" + version + "-" + Integer.toHexString(fields.canonical().hashCode()) + "\"";
+    }
+
+    /**
+     * If-None-Match uses the weak comparison, so a W/ prefix added by a proxy still matches.
+     */
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method lists the movie cards shown on the home page: title, poster, genres, review count and the beginning of
+     * the newest review. They are read from a precomputed read model, which is refreshed shortly after every write.
+     *
+     * @param genre is the genre to filter by, omitted for all movies.
+     * @param limit is the maximum number of cards on the page (1 to 100).
+     * @param cursor is the cursor returned with the previous page, omitted for the first page.
+     * @return a 200k response with the page of summaries.
+     */
+    @GetMapping("/summaries")
+    public ResponseEntity<MovieSummaryPage> getMovieSummaries(@RequestParam(required = false) String genre,
+                                                              @RequestParam(defaultValue = "20") int limit,
+                                                              @RequestParam(required = false) String cursor){
+        return new ResponseEntity<>(movieService.getSummaries(genre, limit, cursor), HttpStatus.OK);
+    }
+
+    /**
+     * This method regenerates the movie summaries from the movies in the background.
+     *
+     * @return a 202 response once the rebuild has started, or a 409 response if a rebuild is already running.
+     */
+    @PostMapping("/summaries/rebuild")
+    public ResponseEntity<Void> rebuildMovieSummaries(){
+        return new ResponseEntity<>(movieService.rebuildSummaries() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT);
+    }
+
+    /**
+     * This method returns the reviews of a movie one page at a time, newest first.
+     * The "nextCursor" of a page is passed back as "cursor" to get the next one, it is null on the last page.
+     *
+     * @param imdbId is the imdbId of the movie.
+     * @param cursor is the cursor of the page to return, omitted for the first page.
+     * @return a 200k response with the page of reviews, or a 400 response if the cursor is malformed.
+     */
+    @GetMapping("/{imdbId}/reviews")
+    public ResponseEntity<ReviewPage> getMovieReviews(@PathVariable String imdbId,
+                                                      @RequestParam(required = false) String cursor){
+        try {
+            return new ResponseEntity<>(movieService.getReviewPage(imdbId, cursor), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * This method returns the hit, miss and eviction counters of the in-memory imdbId cache.
+     *
+     * @return a 200k response with the cache statistics.
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<MovieCacheStats> getCacheStats(){
+        return new ResponseEntity<>(movieService.cacheStats(), HttpStatus.OK);
     }
 
     /**
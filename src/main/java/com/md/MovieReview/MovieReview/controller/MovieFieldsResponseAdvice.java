@@ -0,0 +1,43 @@
+package com.md.MovieReview.MovieReview.controller;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.md.MovieReview.MovieReview.config.JsonConfig;
+import com.md.MovieReview.MovieReview.service.MovieFields;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+/**
+ * This advice writes the movies of a MovieController response with only the fields requested through "fields=".
+ * Without the parameter the response keeps the regular Movie JSON, null fields included.
+ */
+@ControllerAdvice(assignableTypes = MovieController.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class MovieFieldsResponseAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType, MethodParameter returnType,
+                                           ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        MovieFields fields;
+        try {
+            fields = MovieFields.fromParameter(servletRequest.getServletRequest().getParameter("fields"));
+        } catch (IllegalArgumentException e) {
+            // The controller has already answered 400.
+            return;
+        }
+        if (!fields.isAll()) {
+            bodyContainer.setFilters(new SimpleFilterProvider()
+                    .addFilter(JsonConfig.MOVIE_FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(fields.names())));
+        }
+    }
+}
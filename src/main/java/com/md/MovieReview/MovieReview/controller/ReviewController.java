@@ -1,14 +1,18 @@
 package com.md.MovieReview.MovieReview.controller;
 
 import com.md.MovieReview.MovieReview.document.Review;
+import com.md.MovieReview.MovieReview.dto.BulkReviewResult;
 import com.md.MovieReview.MovieReview.service.ReviewService;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import javax.swing.text.html.Option;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 import java.util.Optional;
 
@@ -20,6 +24,7 @@ import java.util.Optional;
  * @since 2023-06-24
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/v1/reviews")
 public class ReviewController {
 
@@ -37,11 +42,26 @@ public class ReviewController {
     /**
      Creates a new review based on the provided request payload.
      @param payload The request payload containing the review body and IMDb ID.
-     @return The ResponseEntity containing the created review and the corresponding HTTP status.
+     @return The ResponseEntity containing the created review and the corresponding HTTP status,
+     or a 404 response if no movie has the IMDb ID.
      */
     @PostMapping("/addReview")
     public ResponseEntity<Review> createReview(@RequestBody Map<String, String> payload) {
-        return new ResponseEntity<Review>(reviewService.createReview(payload.get("reviewBody"), payload.get("imdbId")), HttpStatus.CREATED);
+        return reviewService.createReview(payload.get("reviewBody"), payload.get("imdbId"))
+                .map(review -> new ResponseEntity<>(review, HttpStatus.CREATED))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     Creates many reviews at once, e.g. for partner backfills.
+     The body is either a JSON array or newline-delimited JSON of {"reviewBody": ..., "imdbId": ...} objects, it is read incrementally.
+     @param payload The request body stream.
+     @return The ResponseEntity containing the totals and the outcome of every item, in submission order.
+     @throws IOException if reading the request body fails.
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkReviewResult> createReviews(InputStream payload) throws IOException {
+        return new ResponseEntity<BulkReviewResult>(reviewService.createReviews(payload), HttpStatus.OK);
     }
 
     /**
@@ -59,11 +79,17 @@ public class ReviewController {
      Updates an existing review by its unique identifier (object ID) with the provided review message.
      @param id The unique identifier of the review to be updated.
      @param reviewMessage The updated review message.
-     @return The ResponseEntity containing the updated review body (if found) and the corresponding HTTP status.
+     @return The ResponseEntity containing the updated review body (if found) and the corresponding HTTP status,
+     or a 400 response if the body is not valid JSON with a reviewMessage.
      */
     @PutMapping("/updateReview/{id}")
     public ResponseEntity<String> updateReviewByObjectId(@PathVariable("id") ObjectId id, @RequestBody String reviewMessage) {
-        Optional<Review> existingReview = reviewService.updateReview(id, reviewMessage);
+        Optional<Review> existingReview;
+        try {
+            existingReview = reviewService.updateReview(id, reviewMessage);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
         if (existingReview.isPresent()) {
             String responseBody = existingReview.get().getBody();
             return ResponseEntity.ok(responseBody);
@@ -0,0 +1,30 @@
+package com.md.MovieReview.MovieReview.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+
+/**
+ * This is the copy of a review embedded in a ReviewBucket, serialized like Review.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BucketedReview {
+    private ObjectId reviewId;
+    private String body;
+    private Instant createdAt;
+
+    /**
+     * This method copies a review into its bucketed form, its creation time is taken from its ObjectId.
+     *
+     * @param review is a review that has been assigned its id.
+     * @return the bucketed copy.
+     */
+    public static BucketedReview of(Review review) {
+        return new BucketedReview(review.getId(), review.getBody(), review.getId().getDate().toInstant());
+    }
+}
@@ -5,9 +5,15 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.IndexDirection;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
+import java.time.Instant;
 import java.util.List;
 
 /**
@@ -18,20 +24,49 @@ import java.util.List;
  * @since 2023-06-24
  */
 @Document(collection = "movies")
+@CompoundIndexes({
+        @CompoundIndex(name = "releaseDate_id", def = "{'releaseDate': 1, '_id': 1}"),
+        @CompoundIndex(name = "genres_releasedAt_id", def = "{'genres': 1, 'releasedAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "releasedAt_id", def = "{'releasedAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "imdbId_version", def = "{'imdbId': 1, 'version': 1}")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Movie {
     @Id
     private ObjectId id;
+    @Indexed
     private String imdbId;
+    @TextIndexed
     private String title;
     private String releaseDate;
+
+    /**
+     * The release date as a typed value (midnight UTC), derived from "releaseDate".
+     * Unlike the free-form string it can be range-filtered and sorted through the indexes above.
+     */
+    private Instant releasedAt;
     private String trailerLink;
     private String poster;
     private List<String> genres;
     private List<String> backdrops;
 
+    /**
+     * Below fields are denormalized review statistics, maintained by the same updates that add or remove review ids,
+     * so the number of reviews is known without loading "reviewIds". The index on reviewCount serves the leaderboard.
+     */
+    @Indexed(direction = IndexDirection.DESCENDING)
+    private Integer reviewCount;
+    private Instant lastReviewedAt;
+
+    /**
+     * Below field is incremented by every write changing the movie or one of its reviews, and is served as the ETag.
+     * It is a plain counter rather than @Version, since most writes are partial updates that never load the movie.
+     * A missing value counts as 0. Together with imdbId it is indexed, so a version check is answered from the index alone.
+     */
+    private Long version;
+
     /**
      * Below "DocumentReference" annotation references another document "Review," as it's making a relationship (one to many)
      *
@@ -0,0 +1,38 @@
+package com.md.MovieReview.MovieReview.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This is the record of a deleted movie whose reviews are still to be deleted, mapping to the "movie_deletions" collection.
+ *
+ * <p>It is written right after the movie is deleted and removed once the ReviewReferenceCleanup has deleted the reviews,
+ * so the cascade survives a restart. Reviews are matched by the ids the movie referenced, which are pulled from the record
+ * as they are deleted, and then by its imdbId only while no movie with that imdbId exists, so a movie re-created with
+ * the same imdbId keeps its reviews.
+ */
+@Document(collection = "movie_deletions")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovieDeletion {
+
+    /**
+     * Below field is the _id of the deleted movie, so recording the same deletion twice keeps one document.
+     */
+    @Id
+    private ObjectId movieId;
+    private String imdbId;
+    private List<ObjectId> reviewIds;
+
+    public static MovieDeletion of(ObjectId movieId, String imdbId, Collection<ObjectId> reviewIds) {
+        return new MovieDeletion(movieId, imdbId, List.copyOf(reviewIds));
+    }
+}
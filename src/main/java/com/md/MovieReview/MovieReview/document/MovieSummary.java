@@ -0,0 +1,46 @@
+package com.md.MovieReview.MovieReview.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * This is the card of a movie as shown on the home page, mapping to the "movie_summaries" collection.
+ *
+ * <p>It is a read model: it is never written by the endpoints but derived from "movies" and "review_buckets" by the
+ * MovieSummaryPipeline, so listing cards is one indexed query without loading movies or resolving their reviews.
+ */
+@Document(collection = "movie_summaries")
+@CompoundIndex(name = "genres_id", def = "{'genres': 1, '_id': 1}")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovieSummary {
+
+    /**
+     * Below field is the imdbId of the summarized movie, which is the _id of its summary.
+     */
+    @Id
+    private String imdbId;
+    private String title;
+    private String poster;
+    private List<String> genres;
+    private Integer reviewCount;
+
+    /**
+     * Below field is the beginning of the newest review of the movie, null while it has none.
+     */
+    private String latestReview;
+    private Instant latestReviewAt;
+
+    /**
+     * Below field is the time the summary was last derived from the movie, a rebuild removes summaries older than itself.
+     */
+    private Instant refreshedAt;
+}
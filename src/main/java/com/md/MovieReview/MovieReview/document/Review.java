@@ -1,11 +1,14 @@
 package com.md.MovieReview.MovieReview.document;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
@@ -27,9 +30,19 @@ public class Review {
     @JsonProperty("reviewId")
     private ObjectId id;
 
+    @TextIndexed
     @JsonProperty("body")
     private String body;
 
+    /**
+     * The imdbId of the movie this review belongs to.
+     * It lets a review be traced back to its movie without scanning the "reviewIds" of every movie, e.g. for full-text search.
+     * It is internal and not part of the review JSON.
+     */
+    @JsonIgnore
+    @Indexed
+    private String imdbId;
+
     /**
      * This is a constructor to instantiate a Review object with a review body.
      *
@@ -38,4 +51,15 @@ public class Review {
     public Review(String body) {
         this.body = body;
     }
+
+    /**
+     * This is a constructor to instantiate a Review object with a review body for the given movie.
+     *
+     * @param body is the text body of the review.
+     * @param imdbId is the imdbId of the reviewed movie.
+     */
+    public Review(String body, String imdbId) {
+        this.body = body;
+        this.imdbId = imdbId;
+    }
 }
@@ -0,0 +1,49 @@
+package com.md.MovieReview.MovieReview.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.List;
+
+/**
+ * This is a bucket of reviews of one movie, mapping to the "review_buckets" collection.
+ *
+ * <p>Reviews are appended to the open bucket of their movie until it has taken "reviews.buckets.size" reviews, then it is
+ * closed and a new bucket is started, so no document grows without bound and one page of reviews is one bucket read.
+ * A unique partial index allows one open bucket per movie, so concurrent appends never start two.
+ * The "reviews" collection stays the source of truth; buckets hold a copy of each review for listing them per movie.
+ */
+@Document(collection = "review_buckets")
+@CompoundIndexes({
+        @CompoundIndex(name = "imdbId_open", def = "{'imdbId': 1}", unique = true, partialFilter = "{'open': true}"),
+        @CompoundIndex(name = "imdbId_id", def = "{'imdbId': 1, '_id': -1}"),
+        @CompoundIndex(name = "reviewId", def = "{'reviews.reviewId': 1}")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReviewBucket {
+    @Id
+    private ObjectId id;
+    private String imdbId;
+
+    /**
+     * Below field is the number of reviews in the bucket, incremented by every append and decremented by every removal,
+     * so an emptied bucket is found by its count. Only the open bucket is appended to, so closed buckets are never
+     * refilled and buckets stay in the order their reviews were written.
+     */
+    private int count;
+
+    /**
+     * Below field is true for the bucket new reviews of the movie are appended to. Buckets written before it existed,
+     * and migrated ones, do not have it and are never appended to.
+     */
+    private boolean open;
+    private List<BucketedReview> reviews;
+}
@@ -0,0 +1,20 @@
+package com.md.MovieReview.MovieReview.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class is the outcome of a single item of a bulk review import.
+ * The index is the position of the item in the submitted array or NDJSON stream, starting at 0.
+ * Exactly one of reviewId (on success) and error (on failure) is set.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkReviewItemResult {
+    private int index;
+    private String imdbId;
+    private String reviewId;
+    private String error;
+}
@@ -0,0 +1,36 @@
+package com.md.MovieReview.MovieReview.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is the outcome of a bulk review import: the totals plus one entry per submitted item, in submission order.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkReviewResult {
+    private int inserted;
+    private int failed;
+    private List<BulkReviewItemResult> items = new ArrayList<>();
+
+    /**
+     * This method records an item which was stored and linked to its movie.
+     */
+    public void succeeded(int index, String imdbId, String reviewId) {
+        items.add(new BulkReviewItemResult(index, imdbId, reviewId, null));
+        inserted++;
+    }
+
+    /**
+     * This method records an item which could not be imported, along with the reason.
+     */
+    public void failed(int index, String imdbId, String error) {
+        items.add(new BulkReviewItemResult(index, imdbId, null, error));
+        failed++;
+    }
+}
@@ -0,0 +1,16 @@
+package com.md.MovieReview.MovieReview.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class is one bucket of a facet: a genre or a release year, with the number of matching movies.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FacetCount {
+    private String value;
+    private long count;
+}
@@ -0,0 +1,22 @@
+package com.md.MovieReview.MovieReview.dto;
+
+import com.md.MovieReview.MovieReview.document.Movie;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * This class is the result of browsing movies by genre and release date: one page of movies, the total number of matches,
+ * and the number of matches per genre and per release year, most frequent first.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovieBrowseResult {
+    private List<Movie> movies;
+    private long total;
+    private List<FacetCount> genres;
+    private List<FacetCount> years;
+}
@@ -0,0 +1,20 @@
+package com.md.MovieReview.MovieReview.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class is a snapshot of the counters of the imdbId movie cache.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovieCacheStats {
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long loadCount;
+    private double hitRate;
+    private long size;
+}
@@ -0,0 +1,21 @@
+package com.md.MovieReview.MovieReview.dto;
+
+import com.md.MovieReview.MovieReview.document.Movie;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * This class represents a single page of movies returned by the keyset pagination endpoint.
+ * The nextCursor is an opaque token which the client passes back to fetch the following page,
+ * it is null once the last page has been reached.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MoviePage {
+    private List<Movie> movies;
+    private String nextCursor;
+}
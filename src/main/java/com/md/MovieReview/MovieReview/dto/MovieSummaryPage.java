@@ -0,0 +1,20 @@
+package com.md.MovieReview.MovieReview.dto;
+
+import com.md.MovieReview.MovieReview.document.MovieSummary;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * This class represents a single page of movie summaries, in imdbId order.
+ * The nextCursor is passed back to fetch the following page, it is null once the last page has been reached.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovieSummaryPage {
+    private List<MovieSummary> summaries;
+    private String nextCursor;
+}
@@ -0,0 +1,20 @@
+package com.md.MovieReview.MovieReview.dto;
+
+import com.md.MovieReview.MovieReview.document.BucketedReview;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * This class represents one page of the reviews of a movie, newest first.
+ * The nextCursor is passed back as the "cursor" parameter to fetch older reviews, it is null on the last page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReviewPage {
+    private List<BucketedReview> reviews;
+    private String nextCursor;
+}
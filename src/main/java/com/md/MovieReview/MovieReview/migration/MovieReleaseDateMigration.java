@@ -0,0 +1,79 @@
+package com.md.MovieReview.MovieReview.migration;
+
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.service.ReleaseDates;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * This runner fills in the typed "releasedAt" field for movies written before it existed.
+ *
+ * <p>Only movies without the field are streamed, projected to their "releaseDate", and the parsed values are written
+ * in unordered bulk writes of {@value #BATCH_SIZE} movies. Release dates that cannot be parsed are stored as null,
+ * so such movies are not scanned again on the next startup; they are simply left out of date range queries.
+ */
+@Component
+public class MovieReleaseDateMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieReleaseDateMigration.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public MovieReleaseDateMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String collection = mongoTemplate.getCollectionName(Movie.class);
+        Query untyped = Query.query(Criteria.where("releasedAt").exists(false)).cursorBatchSize(BATCH_SIZE);
+        untyped.fields().include("releaseDate");
+
+        long updated = 0;
+        long unparsable = 0;
+        try (Stream<Document> movies = mongoTemplate.stream(untyped, Document.class, collection)) {
+            Iterator<Document> iterator = movies.iterator();
+            BulkOperations batch = null;
+            int batchSize = 0;
+            while (iterator.hasNext()) {
+                Document movie = iterator.next();
+                if (batch == null) {
+                    batch = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+                }
+                Object releaseDate = movie.get("releaseDate");
+                Instant releasedAt = releaseDate instanceof String value ? ReleaseDates.parse(value) : null;
+                if (releasedAt == null) {
+                    unparsable++;
+                }
+                batch.updateOne(Query.query(Criteria.where("_id").is(movie.get("_id"))),
+                        new Update().set("releasedAt", releasedAt == null ? null : Date.from(releasedAt)).inc("version", 1));
+                if (++batchSize == BATCH_SIZE || !iterator.hasNext()) {
+                    updated += batch.execute().getModifiedCount();
+                    batch = null;
+                    batchSize = 0;
+                }
+            }
+        }
+        if (updated > 0) {
+            log.info("Backfilled releasedAt on {} movies, {} of them have no parsable release date", updated, unparsable);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.md.MovieReview.MovieReview.migration;
+
+import com.md.MovieReview.MovieReview.document.Movie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+
+/**
+ * This runner fills in "reviewCount" for movies written before the counter existed.
+ * The count is computed on the server from the size of "reviewIds" with a single pipeline update,
+ * and only movies without the field are touched (their version is incremented). Once the data is migrated a startup
+ * only checks that no such movie exists, and sends no update.
+ */
+@Component
+public class MovieStatsBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieStatsBackfill.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public MovieStatsBackfill(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Query uncounted = Query.query(Criteria.where("reviewCount").exists(false));
+        if (!mongoTemplate.exists(uncounted, Movie.class)) {
+            return;
+        }
+        AggregationUpdate countReviews = AggregationUpdate.update()
+                .set("reviewCount")
+                .toValue(ArrayOperators.Size.lengthOfArray(ConditionalOperators.ifNull("reviewIds").then(Collections.emptyList())))
+                .set("version")
+                .toValue(ArithmeticOperators.Add.valueOf(ConditionalOperators.ifNull("version").then(0)).add(1));
+        long updated = mongoTemplate.updateMulti(uncounted, countReviews,
+                mongoTemplate.getCollectionName(Movie.class)).getModifiedCount();
+        if (updated > 0) {
+            log.info("Backfilled reviewCount on {} movies", updated);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.md.MovieReview.MovieReview.migration;
+
+import com.md.MovieReview.MovieReview.document.BucketedReview;
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.Review;
+import com.md.MovieReview.MovieReview.document.ReviewBucket;
+import com.md.MovieReview.MovieReview.service.MovieCache;
+import com.md.MovieReview.MovieReview.service.MovieReviewResolver;
+import com.md.MovieReview.MovieReview.service.ReviewBuckets;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * This runner copies the reviews referenced by the "reviewIds" arrays of the movies into review buckets, it is switched
+ * on with "reviews.buckets.migrate=true".
+ *
+ * <p>Movies with review ids are streamed, projected to their imdbId and review ids, {@value #BATCH_SIZE} at a time.
+ * For each batch, one query finds the ids already held by a bucket and one $in query loads the other reviews, which
+ * are inserted into new buckets in the order they were written. These buckets are sealed, they are not open, so new
+ * reviews always go to buckets of their own and pages stay ordered from newest to oldest.
+ * Reviews already in a bucket are skipped, so the migration can be interrupted and run again.
+ *
+ * <p>With "reviews.buckets.unset-review-ids=true" the "reviewIds" array of every migrated movie is removed as well,
+ * so reading a movie no longer depends on its number of reviews. New reviews should no longer be pushed to the movies
+ * then, see "reviews.movie-review-ids.enabled". The arrays are kept as long as reviews without an imdbId exist,
+ * since ReviewMovieBackfill needs them to tag those reviews.
+ */
+@Component
+@ConditionalOnProperty(name = "reviews.buckets.migrate", havingValue = "true")
+public class ReviewBucketMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewBucketMigration.class);
+
+    private static final int BATCH_SIZE = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final ReviewBuckets reviewBuckets;
+    private final MovieCache movieCache;
+    private final boolean unsetReviewIds;
+
+    @Autowired
+    public ReviewBucketMigration(MongoTemplate mongoTemplate, ReviewBuckets reviewBuckets, MovieCache movieCache,
+                                 @Value("${reviews.buckets.unset-review-ids:false}") boolean unsetReviewIds) {
+        this.mongoTemplate = mongoTemplate;
+        this.reviewBuckets = reviewBuckets;
+        this.movieCache = movieCache;
+        this.unsetReviewIds = unsetReviewIds;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        boolean unset = unsetReviewIds;
+        if (unset && mongoTemplate.exists(Query.query(Criteria.where("imdbId").exists(false)), Review.class)) {
+            log.warn("Keeping the reviewIds of the movies until ReviewMovieBackfill has tagged every review with its imdbId");
+            unset = false;
+        }
+
+        Query moviesWithReviews = Query.query(Criteria.where("reviewIds.0").exists(true)).cursorBatchSize(BATCH_SIZE);
+        moviesWithReviews.fields().include("imdbId").include("reviewIds");
+
+        long copied = 0;
+        long unsetMovies = 0;
+        try (Stream<Document> movies = mongoTemplate.stream(moviesWithReviews, Document.class, mongoTemplate.getCollectionName(Movie.class))) {
+            Iterator<Document> iterator = movies.iterator();
+            Map<Document, List<ObjectId>> batch = new LinkedHashMap<>();
+            while (iterator.hasNext()) {
+                Document movie = iterator.next();
+                batch.put(movie, MovieReviewResolver.detachReviewIds(movie));
+                if (batch.size() == BATCH_SIZE || !iterator.hasNext()) {
+                    copied += migrate(batch);
+                    if (unset) {
+                        unsetMovies += unsetReviewIds(batch.keySet());
+                    }
+                    batch.clear();
+                }
+            }
+        }
+        log.info("Copied {} reviews into review buckets, removed reviewIds from {} movies", copied, unsetMovies);
+    }
+
+    private long migrate(Map<Document, List<ObjectId>> batch) {
+        List<ObjectId> referenced = new ArrayList<>();
+        batch.values().forEach(referenced::addAll);
+
+        Query bucketedQuery = Query.query(Criteria.where("reviews.reviewId").in(referenced));
+        bucketedQuery.fields().include("reviews.reviewId");
+        Set<ObjectId> bucketed = new HashSet<>();
+        for (Document bucket : mongoTemplate.find(bucketedQuery, Document.class, mongoTemplate.getCollectionName(ReviewBucket.class))) {
+            for (Document review : bucket.getList("reviews", Document.class, List.of())) {
+                bucketed.add(review.getObjectId("reviewId"));
+            }
+        }
+        referenced.removeAll(bucketed);
+        if (referenced.isEmpty()) {
+            return 0;
+        }
+        Map<ObjectId, Review> reviews = new HashMap<>();
+        mongoTemplate.find(Query.query(Criteria.where("_id").in(referenced)), Review.class)
+                .forEach(review -> reviews.put(review.getId(), review));
+
+        List<ReviewBucket> buckets = new ArrayList<>();
+        batch.forEach((movie, reviewIds) -> {
+            List<Review> missing = reviewIds.stream()
+                    .filter(id -> !bucketed.contains(id))
+                    .map(reviews::get)
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .sorted(Comparator.comparing(Review::getId))
+                    .toList();
+            for (int start = 0; start < missing.size(); start += reviewBuckets.bucketSize()) {
+                List<Review> chunk = missing.subList(start, Math.min(start + reviewBuckets.bucketSize(), missing.size()));
+                // The bucket id carries the time of its oldest review, so migrated buckets sort before newer ones.
+                buckets.add(new ReviewBucket(new ObjectId(chunk.get(0).getId().getDate()), movie.getString("imdbId"),
+                        chunk.size(), false, chunk.stream().map(BucketedReview::of).toList()));
+            }
+        });
+        mongoTemplate.insert(buckets, ReviewBucket.class);
+        return buckets.stream().mapToLong(bucket -> bucket.getReviews().size()).sum();
+    }
+
+    private long unsetReviewIds(Set<Document> movies) {
+        List<Object> ids = movies.stream().map(movie -> movie.get("_id")).toList();
+        long modified = mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(ids)),
+                new Update().unset("reviewIds").inc("version", 1), Movie.class).getModifiedCount();
+        movies.forEach(movie -> movieCache.invalidate(movie.getString("imdbId")));
+        return modified;
+    }
+}
@@ -0,0 +1,77 @@
+package com.md.MovieReview.MovieReview.migration;
+
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.Review;
+import com.md.MovieReview.MovieReview.service.MovieReviewResolver;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * This runner stamps the imdbId of its movie on every review written before Review carried it.
+ *
+ * <p>It only does work while untagged reviews exist. The movies with review ids are then streamed with a projection,
+ * and one updateMany per movie is sent in unordered bulk writes of {@value #BATCH_SIZE} movies.
+ * Reviews no movie refers to are finally stamped with a null imdbId, which marks them as orphaned and keeps
+ * the next startup from scanning the movies again.
+ */
+@Component
+public class ReviewMovieBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewMovieBackfill.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public ReviewMovieBackfill(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!mongoTemplate.exists(Query.query(Criteria.where("imdbId").exists(false)), Review.class)) {
+            return;
+        }
+
+        Query moviesWithReviews = Query.query(Criteria.where("reviewIds.0").exists(true)).cursorBatchSize(BATCH_SIZE);
+        moviesWithReviews.fields().include("imdbId").include("reviewIds");
+
+        long updated = 0;
+        try (Stream<Document> movies = mongoTemplate.stream(moviesWithReviews, Document.class, mongoTemplate.getCollectionName(Movie.class))) {
+            Iterator<Document> iterator = movies.iterator();
+            BulkOperations batch = null;
+            int batchSize = 0;
+            while (iterator.hasNext()) {
+                Document movie = iterator.next();
+                if (batch == null) {
+                    batch = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Review.class);
+                }
+                batch.updateMulti(
+                        Query.query(Criteria.where("_id").in(MovieReviewResolver.detachReviewIds(movie)).and("imdbId").exists(false)),
+                        new Update().set("imdbId", movie.getString("imdbId")));
+                if (++batchSize == BATCH_SIZE || !iterator.hasNext()) {
+                    updated += batch.execute().getModifiedCount();
+                    batch = null;
+                    batchSize = 0;
+                }
+            }
+        }
+        long orphaned = mongoTemplate.updateMulti(Query.query(Criteria.where("imdbId").exists(false)),
+                new Update().set("imdbId", null), Review.class).getModifiedCount();
+        log.info("Backfilled imdbId on {} reviews, {} reviews are not referenced by any movie", updated, orphaned);
+    }
+}
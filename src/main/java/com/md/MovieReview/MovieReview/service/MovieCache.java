@@ -0,0 +1,115 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.dto.MovieCacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * This class is a bounded in-memory cache of movies keyed by imdbId, sitting in front of MovieService.singleMovieByImdbId.
+ *
+ * <p>Entries are evicted by size and by time since they were written. On a miss only an incomplete future is installed
+ * under the imdbId, the database load then runs on the calling thread outside of any cache lock (so a virtual thread
+ * is never pinned while waiting on MongoDB), and concurrent requests for the same imdbId wait on that future instead of
+ * all going to MongoDB, for at most "movies.cache.load-timeout". A failed load, including an Error, fails the waiting
+ * requests as well and is not cached. An invalidation during a running load drops the pending entry, so its result is never cached.
+ * Lookups of unknown imdbIds are cached as empty results as well, addMovie invalidates them.
+ * The counters are published as the "cache.*" metrics tagged with cache="movies.imdb".
+ */
+@Component
+public class MovieCache {
+
+    private final AsyncCache<String, Optional<Movie>> cache;
+    private final long loadTimeoutNanos;
+
+    public MovieCache(@Value("${movies.cache.max-size:10000}") long maxSize,
+                      @Value("${movies.cache.ttl:5m}") Duration ttl,
+                      @Value("${movies.cache.load-timeout:5s}") Duration loadTimeout,
+                      MeterRegistry meterRegistry) {
+        this.loadTimeoutNanos = loadTimeout.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "movies.imdb");
+    }
+
+    /**
+     * This method returns the cached movie, loading it with the given loader on a miss.
+     *
+     * @param imdbId is the imdbId of the movie.
+     * @param loader loads the movie from the database, it is called at most once per imdbId at a time.
+     * @return an Optional containing the movie, if found.
+     * @throws IllegalStateException if the load started by a concurrent request did not complete within the load timeout.
+     */
+    public Optional<Movie> get(String imdbId, Function<String, Optional<Movie>> loader) {
+        AtomicReference<CompletableFuture<Optional<Movie>>> created = new AtomicReference<>();
+        CompletableFuture<Optional<Movie>> entry = cache.get(imdbId, (key, executor) -> {
+            CompletableFuture<Optional<Movie>> placeholder = new CompletableFuture<>();
+            created.set(placeholder);
+            return placeholder;
+        });
+
+        CompletableFuture<Optional<Movie>> placeholder = created.get();
+        if (placeholder != null) {
+            try {
+                placeholder.complete(loader.apply(imdbId));
+            } catch (Throwable e) {
+                // Failed futures are removed by the cache, the next request retries the load.
+                placeholder.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return entry.get(loadTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out waiting for the load of movie " + imdbId, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the load of movie " + imdbId, e);
+        }
+    }
+
+    /**
+     * This method removes the movie from the cache, it must be called after every write affecting the movie.
+     *
+     * @param imdbId is the imdbId of the changed movie, null is ignored.
+     */
+    public void invalidate(String imdbId) {
+        if (imdbId != null) {
+            cache.synchronous().invalidate(imdbId);
+        }
+    }
+
+    /**
+     * @return a snapshot of the hit, miss and eviction counters.
+     */
+    public MovieCacheStats stats() {
+        CacheStats stats = cache.synchronous().stats();
+        return new MovieCacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                stats.loadCount(), stats.hitRate(), cache.synchronous().estimatedSize());
+    }
+}
@@ -0,0 +1,10 @@
+package com.md.MovieReview.MovieReview.service;
+
+/**
+ * This event is published after every write changing a movie or its reviews, once the write is done.
+ * It only names the movie; listeners read its current state themselves, so events may be merged or repeated.
+ *
+ * @param imdbId is the imdbId of the changed movie.
+ */
+public record MovieChangedEvent(String imdbId) {
+}
@@ -0,0 +1,97 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.md.MovieReview.MovieReview.document.Movie;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * This class is the position of the last movie on a page, encoded as an opaque token for the client.
+ * The token carries the sort key, the "_id" and the sort field value of that movie, so the next page
+ * can be fetched with a range condition on the index instead of skipping over all previous pages.
+ */
+final class MovieCursor {
+
+    private static final String SEPARATOR = "|";
+    private static final String VALUE_PREFIX = "=";
+
+    private final MovieSortKey sortKey;
+    private final ObjectId id;
+    private final String value;
+
+    private MovieCursor(MovieSortKey sortKey, ObjectId id, String value) {
+        this.sortKey = sortKey;
+        this.id = id;
+        this.value = value;
+    }
+
+    /**
+     * This method builds the cursor pointing right after the given movie.
+     *
+     * @param movie is the last movie of the current page.
+     * @param sortKey is the sort key the page was fetched with.
+     * @return the cursor for the following page.
+     */
+    static MovieCursor after(Movie movie, MovieSortKey sortKey) {
+        String value = sortKey == MovieSortKey.RELEASE_DATE ? movie.getReleaseDate() : null;
+        return new MovieCursor(sortKey, movie.getId(), value);
+    }
+
+    /**
+     * This method decodes a token previously produced by {@link #encode()}.
+     *
+     * @param token is the opaque cursor sent by the client.
+     * @param sortKey is the sort key of the current request, it must match the one stored in the token.
+     * @return the decoded cursor.
+     * @throws IllegalArgumentException if the token is malformed or was issued for another sort key.
+     */
+    static MovieCursor decode(String token, MovieSortKey sortKey) {
+        String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = decoded.split("\\|", 3);
+        if (parts.length < 2 || !sortKey.getParameter().equals(parts[0])) {
+            throw new IllegalArgumentException("Cursor does not belong to sort key " + sortKey.getParameter());
+        }
+        String value = null;
+        if (parts.length == 3) {
+            if (!parts[2].startsWith(VALUE_PREFIX)) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            value = parts[2].substring(VALUE_PREFIX.length());
+        }
+        return new MovieCursor(sortKey, new ObjectId(parts[1]), value);
+    }
+
+    /**
+     * @return the URL safe token handed to the client.
+     */
+    String encode() {
+        StringBuilder raw = new StringBuilder(sortKey.getParameter()).append(SEPARATOR).append(id.toHexString());
+        if (value != null) {
+            raw.append(SEPARATOR).append(VALUE_PREFIX).append(value);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * This method builds the criteria selecting every movie that sorts strictly after this cursor.
+     * Missing sort values sort first in MongoDB, so a null value continues with the remaining nulls and then every non-null value.
+     *
+     * @return the range criteria for the next page.
+     */
+    Criteria toCriteria() {
+        String field = sortKey.getField();
+        if (field == null) {
+            return Criteria.where("_id").gt(id);
+        }
+        if (value == null) {
+            return new Criteria().orOperator(
+                    new Criteria().andOperator(Criteria.where(field).is(null), Criteria.where("_id").gt(id)),
+                    Criteria.where(field).ne(null));
+        }
+        return new Criteria().orOperator(
+                Criteria.where(field).gt(value),
+                new Criteria().andOperator(Criteria.where(field).is(value), Criteria.where("_id").gt(id)));
+    }
+}
@@ -0,0 +1,152 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.md.MovieReview.MovieReview.document.Movie;
+import org.springframework.data.mongodb.core.query.Field;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * This class is the sparse fieldset requested through the "fields" parameter, e.g. "fields=imdbId,title,poster".
+ *
+ * <p>It is turned into a projection of the MongoDB query, so fields that were not requested are neither read nor sent.
+ * Leaving out "reviewIds" also skips resolving the reviews. The field names are those of the Movie JSON, "id" maps to "_id".
+ */
+public final class MovieFields {
+
+    /**
+     * The fieldset used when the parameter is missing: every field.
+     */
+    public static final MovieFields ALL = new MovieFields(null);
+
+    private static final Set<String> NAMES = Set.of("id", "imdbId", "title", "releaseDate", "releasedAt", "trailerLink",
+            "poster", "genres", "backdrops", "reviewCount", "lastReviewedAt", "version", "reviewIds");
+
+    /**
+     * The requested field names in their natural order, null for all fields.
+     */
+    private final Set<String> requested;
+
+    private MovieFields(Set<String> requested) {
+        this.requested = requested;
+    }
+
+    /**
+     * This method parses the value of the "fields" request parameter.
+     *
+     * @param parameter is a comma separated list of Movie field names, null or blank for all fields.
+     * @return the requested fieldset.
+     * @throws IllegalArgumentException if a name is not a field of Movie.
+     */
+    public static MovieFields fromParameter(String parameter) {
+        if (parameter == null || parameter.isBlank()) {
+            return ALL;
+        }
+        Set<String> requested = new TreeSet<>();
+        for (String name : parameter.split(",")) {
+            String field = name.trim();
+            if (field.isEmpty()) {
+                continue;
+            }
+            if (!NAMES.contains(field)) {
+                throw new IllegalArgumentException("Unknown movie field: " + field);
+            }
+            requested.add(field);
+        }
+        return requested.isEmpty() ? ALL : new MovieFields(Collections.unmodifiableSet(requested));
+    }
+
+    /**
+     * @return whether every field is returned.
+     */
+    public boolean isAll() {
+        return requested == null;
+    }
+
+    /**
+     * @return the requested field names, empty for all fields.
+     */
+    public Set<String> names() {
+        return requested == null ? Set.of() : requested;
+    }
+
+    /**
+     * @return whether the given Movie field is returned.
+     */
+    public boolean includes(String field) {
+        return requested == null || requested.contains(field);
+    }
+
+    /**
+     * This method narrows the requested review resolution to what the fieldset returns.
+     *
+     * @param resolution is the resolution asked for by the client.
+     * @return the same resolution, or NONE if "reviewIds" is not part of the fieldset.
+     */
+    public ReviewResolution narrow(ReviewResolution resolution) {
+        return includes("reviewIds") ? resolution : ReviewResolution.NONE;
+    }
+
+    /**
+     * This method adds the projection to the query.
+     * Without a fieldset only "reviewIds" is left out, and only when the reviews are not returned.
+     *
+     * @param query is the query reading raw movie documents.
+     * @param resolution is the review resolution, already narrowed with {@link #narrow(ReviewResolution)}.
+     * @param needed are fields the server needs itself, e.g. for a cursor, from "id", "imdbId", "releaseDate" and "version".
+     *               They are read even when not requested and removed again by {@link #strip(Movie)}.
+     */
+    public void applyTo(Query query, ReviewResolution resolution, String... needed) {
+        if (requested == null) {
+            if (resolution == ReviewResolution.NONE) {
+                query.fields().exclude("reviewIds");
+            }
+            return;
+        }
+        Field projection = query.fields();
+        List<String> neededFields = Arrays.asList(needed);
+        for (String field : NAMES) {
+            if (!field.equals("id") && (requested.contains(field) || neededFields.contains(field))) {
+                projection.include(field);
+            }
+        }
+        if (!requested.contains("id") && !neededFields.contains("id")) {
+            projection.exclude("_id");
+        }
+    }
+
+    /**
+     * This method clears the fields that were only read for the server's own use.
+     *
+     * @param movie is a movie read with the projection of {@link #applyTo(Query, ReviewResolution, String...)}.
+     * @return the same movie.
+     */
+    public Movie strip(Movie movie) {
+        if (requested != null) {
+            if (!requested.contains("id")) {
+                movie.setId(null);
+            }
+            if (!requested.contains("imdbId")) {
+                movie.setImdbId(null);
+            }
+            if (!requested.contains("releaseDate")) {
+                movie.setReleaseDate(null);
+            }
+            if (!requested.contains("version")) {
+                movie.setVersion(null);
+            }
+        }
+        return movie;
+    }
+
+    /**
+     * @return the requested fields in a canonical order, empty for all fields; it tells representations apart in ETags.
+     */
+    public String canonical() {
+        return requested == null ? "" : String.join(",", requested);
+    }
+}
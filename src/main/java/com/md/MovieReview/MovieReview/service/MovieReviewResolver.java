@@ -0,0 +1,144 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.Review;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class maps raw movie documents to Movie objects and resolves their "reviewIds" references in bulk.
+ *
+ * <p>Reading Movie directly lets the @DocumentReference on "reviewIds" issue one query against "reviews" per movie.
+ * Here the raw ids of a whole batch of movies are collected first and the reviews are fetched with a single $in query,
+ * so the number of round trips depends on the number of batches, not on the number of movies.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class MovieReviewResolver {
+
+    /**
+     * Upper bound for the number of ids sent in one $in query.
+     */
+    private static final int MAX_IDS_PER_QUERY = 5000;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public MovieReviewResolver(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * @return the name of the collection holding the Movie documents.
+     */
+    public String movieCollection() {
+        return mongoTemplate.getCollectionName(Movie.class);
+    }
+
+    /**
+     * This method maps a batch of raw movie documents and attaches their reviews according to the requested mode.
+     * Review ids that no longer point to an existing review are dropped, the same way @DocumentReference does.
+     *
+     * @param rawMovies are the movie documents as read from the "movies" collection, they are modified in place.
+     * @param resolution is how the reviews are returned.
+     * @return the mapped movies, in the order of the raw documents.
+     */
+    public List<Movie> resolve(List<Document> rawMovies, ReviewResolution resolution) {
+        List<Movie> movies = new ArrayList<>(rawMovies.size());
+        List<List<ObjectId>> reviewIdsPerMovie = new ArrayList<>(rawMovies.size());
+        Set<ObjectId> allReviewIds = new LinkedHashSet<>();
+        for (Document raw : rawMovies) {
+            List<ObjectId> reviewIds = detachReviewIds(raw);
+            movies.add(mongoTemplate.getConverter().read(Movie.class, raw));
+            reviewIdsPerMovie.add(reviewIds);
+            allReviewIds.addAll(reviewIds);
+        }
+        if (resolution == ReviewResolution.NONE) {
+            return movies;
+        }
+
+        Map<ObjectId, Review> reviews = resolution == ReviewResolution.FULL ? findReviews(allReviewIds) : Collections.emptyMap();
+        for (int i = 0; i < movies.size(); i++) {
+            List<Review> movieReviews = new ArrayList<>();
+            for (ObjectId reviewId : reviewIdsPerMovie.get(i)) {
+                Review review = resolution == ReviewResolution.FULL ? reviews.get(reviewId) : new Review(reviewId, null, null);
+                if (review != null) {
+                    movieReviews.add(review);
+                }
+            }
+            movies.get(i).setReviewIds(movieReviews);
+        }
+        return movies;
+    }
+
+    /**
+     * This method builds the query finding the movies that reference any of the given reviews, reading only their imdbId.
+     * It serves reviews written before they carried their imdbId, until ReviewMovieBackfill has tagged them.
+     *
+     * @param reviewIds are the ids of the reviews.
+     * @return the query against the "movies" collection.
+     */
+    public static Query referencing(Collection<ObjectId> reviewIds) {
+        Query query = Query.query(Criteria.where("reviewIds").in(reviewIds));
+        query.fields().include("imdbId");
+        return query;
+    }
+
+    /**
+     * This method removes the "reviewIds" field from the raw document, so the converter never triggers the per-movie lookup.
+     * It is shared with the reactive serving mode, whose converter cannot resolve references at all.
+     *
+     * @param raw is the raw movie document.
+     * @return the referenced review ids, empty if the field is missing.
+     */
+    public static List<ObjectId> detachReviewIds(Document raw) {
+        Object value = raw.remove("reviewIds");
+        if (!(value instanceof Collection<?> references)) {
+            return Collections.emptyList();
+        }
+        List<ObjectId> reviewIds = new ArrayList<>(references.size());
+        for (Object reference : references) {
+            if (reference instanceof ObjectId reviewId) {
+                reviewIds.add(reviewId);
+            }
+        }
+        return reviewIds;
+    }
+
+    private Map<ObjectId, Review> findReviews(Collection<ObjectId> reviewIds) {
+        Map<ObjectId, Review> reviews = new HashMap<>(reviewIds.size());
+        List<ObjectId> chunk = new ArrayList<>(Math.min(reviewIds.size(), MAX_IDS_PER_QUERY));
+        for (ObjectId reviewId : reviewIds) {
+            chunk.add(reviewId);
+            if (chunk.size() == MAX_IDS_PER_QUERY) {
+                findReviewChunk(chunk, reviews);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            findReviewChunk(chunk, reviews);
+        }
+        return reviews;
+    }
+
+    private void findReviewChunk(List<ObjectId> chunk, Map<ObjectId, Review> reviews) {
+        for (Review review : mongoTemplate.find(Query.query(Criteria.where("_id").in(chunk)), Review.class)) {
+            reviews.put(review.getId(), review);
+        }
+    }
+}
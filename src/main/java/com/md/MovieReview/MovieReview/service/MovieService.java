@@ -1,41 +1,352 @@
 package com.md.MovieReview.MovieReview.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.MovieSummary;
+import com.md.MovieReview.MovieReview.document.Review;
+import com.md.MovieReview.MovieReview.dto.FacetCount;
+import com.md.MovieReview.MovieReview.dto.MovieBrowseResult;
+import com.md.MovieReview.MovieReview.dto.MovieCacheStats;
+import com.md.MovieReview.MovieReview.dto.MoviePage;
+import com.md.MovieReview.MovieReview.dto.MovieSummaryPage;
+import com.md.MovieReview.MovieReview.dto.ReviewPage;
 import com.md.MovieReview.MovieReview.repository.MovieRepository;
+import io.micrometer.core.annotation.Timed;
+import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.FacetOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
 import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * This service class provides operations to interact with Movie objects stored in the database.
  * It leverages the MovieRepository to access the MongoDB via Spring Data MongoDB's MongoTemplate.
+ * Every public method is timed as "movie.service", tagged with the method name.
  *
  * @author Maulik Davra
  * @version 1.0
  * @since 2023-06-24
  */
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Timed("movie.service")
 public class MovieService {
 
+    /**
+     * Upper bound for the page size of the keyset pagination, so a single request can never load an unbounded number of movies.
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Number of documents the export cursor fetches per round trip, and the number of lines written between two flushes.
+     */
+    private static final int EXPORT_BATCH_SIZE = 500;
+
+    /**
+     * Number of best matches read from each text index; search results are ranked and paginated within this window.
+     */
+    private static final int SEARCH_CANDIDATES = 200;
+
+    /**
+     * A match in a review counts for half of a match in the title when ranking search results.
+     */
+    private static final double REVIEW_MATCH_WEIGHT = 0.5;
+
     private final MovieRepository movieRepository;
     private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final MovieReviewResolver movieReviewResolver;
+    private final MovieCache movieCache;
+    private final ReviewReferenceCleanup reviewReferenceCleanup;
+    private final ReviewBuckets reviewBuckets;
+    private final MovieSummaryPipeline movieSummaryPipeline;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public MovieService(MovieRepository movieRepository, MongoTemplate mongoTemplate) {
+    public MovieService(MovieRepository movieRepository, MongoTemplate mongoTemplate, ObjectMapper objectMapper,
+                        MovieReviewResolver movieReviewResolver, MovieCache movieCache,
+                        ReviewReferenceCleanup reviewReferenceCleanup, ReviewBuckets reviewBuckets,
+                        MovieSummaryPipeline movieSummaryPipeline, ApplicationEventPublisher eventPublisher) {
         this.movieRepository = movieRepository;
         this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.movieReviewResolver = movieReviewResolver;
+        this.movieCache = movieCache;
+        this.reviewReferenceCleanup = reviewReferenceCleanup;
+        this.reviewBuckets = reviewBuckets;
+        this.movieSummaryPipeline = movieSummaryPipeline;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
      * This method retrieves all movies from the database.
+     * The reviews of all movies are resolved with one batched query instead of one query per movie,
+     * unless "reviewIds" is left out of the fieldset.
      *
+     * @param fields is the sparse fieldset to read and return.
      * @return a list of all movies.
      */
-    public List<Movie> getAllMovies(){
-        return movieRepository.findAll();
+    public List<Movie> getAllMovies(MovieFields fields){
+        ReviewResolution resolution = fields.narrow(ReviewResolution.FULL);
+        Query query = new Query();
+        fields.applyTo(query, resolution);
+        List<Document> rawMovies = mongoTemplate.find(query, Document.class, movieReviewResolver.movieCollection());
+        return movieReviewResolver.resolve(rawMovies, resolution);
+    }
+
+    /**
+     * This method writes the whole movie catalog to the given stream as newline-delimited JSON, one movie per line.
+     *
+     * <p>The movies are read through a MongoDB cursor and written as they arrive, so only one cursor batch is held in memory
+     * no matter how large the catalog is. Writing to the servlet output stream blocks while the client is not reading,
+     * which in turn stops pulling batches from the cursor. The reviews of each batch are resolved with a single query.
+     *
+     * @param includeReviews whether the referenced reviews are resolved; when false the "reviewIds" field is not read at all.
+     * @param out is the stream the NDJSON lines are written to.
+     * @throws IOException if writing to the stream fails, e.g. when the client disconnects.
+     */
+    public void exportMovies(boolean includeReviews, OutputStream out) throws IOException {
+        ReviewResolution resolution = includeReviews ? ReviewResolution.FULL : ReviewResolution.NONE;
+        Query query = new Query().with(MovieSortKey.ID.toSort()).cursorBatchSize(EXPORT_BATCH_SIZE);
+        MovieFields.ALL.applyTo(query, resolution);
+
+        try (Stream<Document> rawMovies = mongoTemplate.stream(query, Document.class, movieReviewResolver.movieCollection());
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // The servlet container owns the response stream, it must stay open after the generator is closed.
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Flushing is done per batch below instead of after every single movie.
+            ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            Iterator<Document> iterator = rawMovies.iterator();
+            List<Document> batch = new ArrayList<>(EXPORT_BATCH_SIZE);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == EXPORT_BATCH_SIZE || !iterator.hasNext()) {
+                    for (Movie movie : movieReviewResolver.resolve(batch, resolution)) {
+                        writer.writeValue(generator, movie);
+                        generator.writeRaw('\n');
+                    }
+                    generator.flush();
+                    batch.clear();
+                }
+            }
+            generator.flush();
+        }
+    }
+
+    /**
+     * This method retrieves one page of movies using keyset pagination.
+     * Instead of skipping over the previous pages, the cursor is turned into a range condition on the sort index,
+     * so fetching a deep page costs the same as fetching the first one.
+     *
+     * @param limit is the maximum number of movies on the page, clamped between 1 and {@link #MAX_PAGE_SIZE}.
+     * @param cursor is the opaque cursor returned with the previous page, or null for the first page.
+     * @param sortKey is the field the movies are ordered by.
+     * @param resolution is how the reviews of the movies on the page are returned.
+     * @param fields is the sparse fieldset to read and return, the fields of the cursor are read in any case.
+     * @return the page of movies together with the cursor of the next page, which is null on the last page.
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another sort key.
+     */
+    public MoviePage getMoviePage(int limit, String cursor, MovieSortKey sortKey, ReviewResolution resolution, MovieFields fields){
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        resolution = fields.narrow(resolution);
+        Query query = new Query();
+        if (cursor != null && !cursor.isBlank()) {
+            query.addCriteria(MovieCursor.decode(cursor, sortKey).toCriteria());
+        }
+        // One extra document tells us whether another page follows without issuing a count.
+        query.with(sortKey.toSort()).limit(pageSize + 1);
+        if (sortKey.getField() == null) {
+            fields.applyTo(query, resolution, "id");
+        } else {
+            fields.applyTo(query, resolution, "id", sortKey.getField());
+        }
+
+        List<Document> rawMovies = mongoTemplate.find(query, Document.class, movieReviewResolver.movieCollection());
+        List<Movie> movies = movieReviewResolver.resolve(rawMovies, resolution);
+        String nextCursor = null;
+        if (movies.size() > pageSize) {
+            movies = new ArrayList<>(movies.subList(0, pageSize));
+            nextCursor = MovieCursor.after(movies.get(pageSize - 1), sortKey).encode();
+        }
+        movies.forEach(fields::strip);
+        return new MoviePage(movies, nextCursor);
+    }
+
+    /**
+     * This method retrieves the movies with the most reviews, highest count first.
+     * The query is answered by walking the descending index on "reviewCount", no aggregation over reviews is needed.
+     *
+     * @param limit is the number of movies to return, clamped between 1 and {@link #MAX_PAGE_SIZE}.
+     * @param resolution is how the reviews of the returned movies are included.
+     * @param fields is the sparse fieldset to read and return.
+     * @return the most reviewed movies.
+     */
+    public List<Movie> getTopMovies(int limit, ReviewResolution resolution, MovieFields fields){
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.DESC, "reviewCount"))
+                .limit(Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        resolution = fields.narrow(resolution);
+        fields.applyTo(query, resolution);
+        return movieReviewResolver.resolve(mongoTemplate.find(query, Document.class, movieReviewResolver.movieCollection()), resolution);
+    }
+
+    /**
+     * This method searches movies by the words of their title and of their reviews, best matches first.
+     *
+     * <p>Both text indexes are queried for their best {@value #SEARCH_CANDIDATES} matches, reading only the imdbId and the score.
+     * The scores are added up per movie, a review match weighted by {@value #REVIEW_MATCH_WEIGHT}, and only the movies of the
+     * requested page are then loaded, with one query.
+     *
+     * @param text is the search text, matched with MongoDB's language-aware text search.
+     * @param page is the zero-based page number.
+     * @param size is the page size, clamped between 1 and {@link #MAX_PAGE_SIZE}.
+     * @param resolution is how the reviews of the returned movies are included.
+     * @param fields is the sparse fieldset to read and return.
+     * @return the movies of the page in order of relevance, empty past the last result.
+     */
+    public List<Movie> searchMovies(String text, int page, int size, ReviewResolution resolution, MovieFields fields){
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long offset = (long) Math.max(0, page) * pageSize;
+        if (offset >= SEARCH_CANDIDATES) {
+            return Collections.emptyList();
+        }
+
+        TextCriteria criteria = TextCriteria.forDefaultLanguage().matching(text);
+        Map<String, Double> scores = new HashMap<>();
+        addTextScores(criteria, movieReviewResolver.movieCollection(), 1.0, scores);
+        addTextScores(criteria, mongoTemplate.getCollectionName(Review.class), REVIEW_MATCH_WEIGHT, scores);
+
+        List<String> ranked = scores.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .skip(offset)
+                .limit(pageSize)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (ranked.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Query query = Query.query(Criteria.where("imdbId").in(ranked));
+        resolution = fields.narrow(resolution);
+        fields.applyTo(query, resolution, "imdbId");
+        List<Movie> movies = new ArrayList<>(movieReviewResolver.resolve(
+                mongoTemplate.find(query, Document.class, movieReviewResolver.movieCollection()), resolution));
+        movies.sort(Comparator.comparingInt(movie -> ranked.indexOf(movie.getImdbId())));
+        movies.forEach(fields::strip);
+        return movies;
+    }
+
+    private void addTextScores(TextCriteria criteria, String collection, double weight, Map<String, Double> scores) {
+        Query query = TextQuery.queryText(criteria).sortByScore().includeScore("score").limit(SEARCH_CANDIDATES);
+        query.fields().include("imdbId");
+        for (Document match : mongoTemplate.find(query, Document.class, collection)) {
+            String imdbId = match.getString("imdbId");
+            if (imdbId != null) {
+                scores.merge(imdbId, weight * ((Number) match.get("score")).doubleValue(), Double::sum);
+            }
+        }
+    }
+
+    /**
+     * This method browses movies by genre and release date range, and computes facet counts for the matching movies.
+     *
+     * <p>Everything is answered by one aggregation: the filter and the sort are served by the compound indexes on
+     * genres/releasedAt and releasedAt, then a $facet stage returns the requested page, the total, and the counts per genre
+     * and per release year of all matching movies.
+     *
+     * @param genre is the genre the movies must have, or null for all genres.
+     * @param from is the first release day included, or null for no lower bound.
+     * @param to is the last release day included, or null for no upper bound.
+     * @param newestFirst whether the newest movies come first, otherwise the oldest.
+     * @param page is the zero-based page number.
+     * @param size is the page size, clamped between 1 and {@link #MAX_PAGE_SIZE}.
+     * @param resolution is how the reviews of the returned movies are included.
+     * @return the page of movies together with the total and the facet counts.
+     */
+    public MovieBrowseResult browseMovies(String genre, LocalDate from, LocalDate to, boolean newestFirst,
+                                          int page, int size, ReviewResolution resolution){
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long offset = (long) Math.max(0, page) * pageSize;
+
+        List<Criteria> filters = new ArrayList<>();
+        if (genre != null && !genre.isBlank()) {
+            filters.add(Criteria.where("genres").is(genre));
+        }
+        if (from != null || to != null) {
+            Criteria released = Criteria.where("releasedAt");
+            if (from != null) {
+                released.gte(Date.from(ReleaseDates.startOfDay(from)));
+            }
+            if (to != null) {
+                released.lt(Date.from(ReleaseDates.startOfDay(to.plusDays(1))));
+            }
+            filters.add(released);
+        }
+        Criteria criteria = filters.isEmpty() ? new Criteria() : new Criteria().andOperator(filters);
+        Sort.Direction direction = newestFirst ? Sort.Direction.DESC : Sort.Direction.ASC;
+
+        List<AggregationOperation> pageStages = new ArrayList<>(List.of(Aggregation.skip(offset), Aggregation.limit(pageSize)));
+        if (resolution == ReviewResolution.NONE) {
+            pageStages.add(Aggregation.project().andExclude("reviewIds"));
+        }
+        FacetOperation facets = Aggregation.facet(pageStages.toArray(new AggregationOperation[0])).as("movies")
+                .and(Aggregation.count().as("total")).as("total")
+                .and(Aggregation.unwind("genres"), Aggregation.sortByCount("genres")).as("genres")
+                .and(Aggregation.project().and("releasedAt").extractYear().as("year"), Aggregation.sortByCount("year")).as("years");
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.sort(Sort.by(direction, "releasedAt").and(Sort.by(direction, "_id"))),
+                facets);
+
+        Document result = mongoTemplate.aggregate(aggregation, movieReviewResolver.movieCollection(), Document.class)
+                .getUniqueMappedResult();
+        if (result == null) {
+            return new MovieBrowseResult(Collections.emptyList(), 0, Collections.emptyList(), Collections.emptyList());
+        }
+        List<Document> total = result.getList("total", Document.class);
+        return new MovieBrowseResult(
+                movieReviewResolver.resolve(result.getList("movies", Document.class), resolution),
+                total.isEmpty() ? 0 : ((Number) total.get(0).get("total")).longValue(),
+                facetCounts(result.getList("genres", Document.class)),
+                facetCounts(result.getList("years", Document.class)));
+    }
+
+    private List<FacetCount> facetCounts(List<Document> buckets) {
+        List<FacetCount> counts = new ArrayList<>(buckets.size());
+        for (Document bucket : buckets) {
+            Object value = bucket.get("_id");
+            if (value != null) {
+                counts.add(new FacetCount(String.valueOf(value), ((Number) bucket.get("count")).longValue()));
+            }
+        }
+        return counts;
     }
 
     /**
@@ -52,34 +363,155 @@ public class MovieService {
     /**
      * This method retrieves a movie from the database by its imdbId.
      * Note: imdbId is a unique identifier in the database, not the default Hibernate id.
+     * The result is served from the MovieCache, only a miss goes to the database.
      *
      * @param imdbId is the imdbId of the movie to be fetched.
      * @return an Optional containing the movie, if found.
      */
     public Optional<Movie> singleMovieByImdbId(String imdbId){
-        return movieRepository.findMovieByImdbId(imdbId);
+        return movieCache.get(imdbId, movieRepository::findMovieByImdbId);
+    }
+
+    /**
+     * This method retrieves a sparse fieldset of a movie by its imdbId.
+     * A fieldset is read with a projection straight from the database, since the MovieCache only holds whole movies.
+     * The version is always read so the caller can build the ETag, the movie must be passed through
+     * {@link MovieFields#strip(Movie)} before it is returned.
+     *
+     * @param imdbId is the imdbId of the movie to be fetched.
+     * @param fields is the sparse fieldset to read.
+     * @return an Optional containing the movie, if found.
+     */
+    public Optional<Movie> singleMovieByImdbId(String imdbId, MovieFields fields){
+        if (fields.isAll()) {
+            return singleMovieByImdbId(imdbId);
+        }
+        ReviewResolution resolution = fields.narrow(ReviewResolution.FULL);
+        Query query = Query.query(Criteria.where("imdbId").is(imdbId)).limit(1);
+        fields.applyTo(query, resolution, "version");
+        List<Document> rawMovies = mongoTemplate.find(query, Document.class, movieReviewResolver.movieCollection());
+        return movieReviewResolver.resolve(rawMovies, resolution).stream().findFirst();
+    }
+
+    /**
+     * This method reads only the version of a movie, for conditional requests.
+     * The query projects imdbId and version without _id, so it is covered by the imdbId_version index
+     * and neither the document nor its reviews are loaded.
+     *
+     * @param imdbId is the imdbId of the movie.
+     * @return an Optional containing the version, 0 for movies written before versions existed, or empty if not found.
+     */
+    public Optional<Long> currentVersion(String imdbId){
+        Query query = Query.query(Criteria.where("imdbId").is(imdbId));
+        query.fields().include("imdbId").include("version").exclude("_id");
+        Document movie = mongoTemplate.findOne(query, Document.class, movieReviewResolver.movieCollection());
+        if (movie == null) {
+            return Optional.empty();
+        }
+        Object version = movie.get("version");
+        return Optional.of(version instanceof Number number ? number.longValue() : 0L);
+    }
+
+    /**
+     * This method lists the movie cards of the "movie_summaries" read model, in imdbId order.
+     * A page is one query on the _id index, or on the genres_id index when filtered by genre; no movie is loaded and
+     * no review is resolved. Summaries are refreshed asynchronously, so they can lag behind the latest writes briefly.
+     *
+     * @param genre is the genre to filter by, or null for all movies.
+     * @param limit is the maximum number of summaries on the page, clamped between 1 and {@link #MAX_PAGE_SIZE}.
+     * @param cursor is the "nextCursor" of the previous page, or null for the first page.
+     * @return the page of summaries together with the cursor of the next page, which is null on the last page.
+     */
+    public MovieSummaryPage getSummaries(String genre, int limit, String cursor){
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Query query = new Query();
+        if (genre != null && !genre.isBlank()) {
+            query.addCriteria(Criteria.where("genres").is(genre));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            query.addCriteria(Criteria.where("_id").gt(cursor));
+        }
+        query.with(Sort.by("_id")).limit(pageSize + 1);
+        List<MovieSummary> summaries = mongoTemplate.find(query, MovieSummary.class);
+        String nextCursor = null;
+        if (summaries.size() > pageSize) {
+            summaries = new ArrayList<>(summaries.subList(0, pageSize));
+            nextCursor = summaries.get(pageSize - 1).getImdbId();
+        }
+        return new MovieSummaryPage(summaries, nextCursor);
+    }
+
+    /**
+     * This method starts regenerating the "movie_summaries" read model from the movies, see MovieSummaryPipeline.
+     *
+     * @return false if a rebuild is already running, true if one was started.
+     */
+    public boolean rebuildSummaries(){
+        return movieSummaryPipeline.rebuild();
+    }
+
+    /**
+     * This method reads one page of the reviews of a movie from its review buckets, newest reviews first.
+     * A page is one bucket, so it costs a single indexed read however many reviews the movie has.
+     *
+     * @param imdbId is the imdbId of the movie.
+     * @param cursor is the "nextCursor" of the previous page, or null for the first page.
+     * @return the page of reviews, empty if the movie has none.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public ReviewPage getReviewPage(String imdbId, String cursor){
+        return reviewBuckets.page(imdbId, cursor);
     }
 
     /**
      * This method deletes a movie from the database by its ObjectId.
      * Note: ObjectId is the default id used by Hibernate JPA for database records.
+     * The reviews of the movie are deleted in the background by the ReviewReferenceCleanup, and its summary is removed
+     * by the MovieSummaryPipeline.
      *
      * @param objectId is the ObjectId of the movie to be deleted.
      * @return an Optional containing the deleted movie, if found.
      */
     public Optional<Movie> deleteMovie(ObjectId objectId){
         Optional<Movie> review = movieRepository.findById(objectId);
-        review.ifPresent(value -> movieRepository.deleteById(objectId));
+        review.ifPresent(value -> {
+            movieRepository.deleteById(objectId);
+            movieCache.invalidate(value.getImdbId());
+            eventPublisher.publishEvent(new MovieChangedEvent(value.getImdbId()));
+            reviewReferenceCleanup.movieDeleted(objectId, value.getImdbId(), value.getReviewIds() == null ? List.of()
+                    : value.getReviewIds().stream().map(Review::getId).toList());
+        });
         return review;
     }
 
     /**
      * This method adds a new movie to the database.
+     * The review count is initialized from the given review ids and the typed release date from "releaseDate",
+     * unless they were provided. The version is always set here, from MovieVersions, never taken from the client.
      *
      * @param movie is the Movie object to be added.
      * @return the newly added movie.
      */
     public Movie addMovie(Movie movie){
-        return movieRepository.save(movie);
+        if (movie.getReleasedAt() == null) {
+            movie.setReleasedAt(ReleaseDates.parse(movie.getReleaseDate()));
+        }
+        if (movie.getReviewCount() == null) {
+            movie.setReviewCount(movie.getReviewIds() == null ? 0 : movie.getReviewIds().size());
+        }
+        movie.setVersion(MovieVersions.initial());
+        Movie saved = movieRepository.save(movie);
+        movieCache.invalidate(saved.getImdbId());
+        eventPublisher.publishEvent(new MovieChangedEvent(saved.getImdbId()));
+        return saved;
+    }
+
+    /**
+     * This method returns the hit, miss and eviction counters of the imdbId cache.
+     *
+     * @return a snapshot of the cache statistics.
+     */
+    public MovieCacheStats cacheStats(){
+        return movieCache.stats();
     }
 }
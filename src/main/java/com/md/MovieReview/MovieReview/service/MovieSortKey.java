@@ -0,0 +1,55 @@
+package com.md.MovieReview.MovieReview.service;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * The sort keys supported by the keyset pagination of movies.
+ * Every key is paired with "_id" as a tie-breaker, so the order is total and a cursor always points at exactly one position.
+ */
+public enum MovieSortKey {
+    ID("id", null),
+    RELEASE_DATE("releaseDate", "releaseDate");
+
+    private final String parameter;
+    private final String field;
+
+    MovieSortKey(String parameter, String field) {
+        this.parameter = parameter;
+        this.field = field;
+    }
+
+    /**
+     * This method resolves the sort key from the value of the "sort" request parameter.
+     *
+     * @param parameter is the value passed by the client, e.g. "id" or "releaseDate".
+     * @return the matching sort key.
+     * @throws IllegalArgumentException if the parameter does not name a supported sort key.
+     */
+    public static MovieSortKey fromParameter(String parameter) {
+        for (MovieSortKey key : values()) {
+            if (key.parameter.equalsIgnoreCase(parameter)) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort key: " + parameter);
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+
+    /**
+     * @return the document field the movies are ordered by before the "_id" tie-breaker, or null when ordering by "_id" only.
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * @return the ascending sort matching this key, always ending with "_id".
+     */
+    public Sort toSort() {
+        Sort byId = Sort.by(Sort.Direction.ASC, "_id");
+        return field == null ? byId : Sort.by(Sort.Direction.ASC, field).and(byId);
+    }
+}
@@ -0,0 +1,358 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.MovieSummary;
+import com.md.MovieReview.MovieReview.document.ReviewBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * This class keeps the "movie_summaries" read model up to date from the MovieChangedEvents of the write paths.
+ *
+ * <p>Events are routed by imdbId to one of "movies.summaries.partitions" bounded queues, each drained by its own
+ * worker thread, so the summaries of one movie are always refreshed one after the other, in event order, while
+ * different movies are refreshed in parallel. A worker takes up to "movies.summaries.batch-size" events at a time,
+ * merges those of the same movie, reads the movies with one $in query and the newest review of each from its newest
+ * review bucket with one aggregation, and writes the summaries with one unordered bulk write. A failed batch is retried
+ * up to "movies.summaries.max-attempts" times, holding back the later events of its partition, then skipped and counted
+ * as "movies.summaries.failed"; the next rebuild recovers it.
+ *
+ * <p>Publishing never blocks a request: when a queue is full the change is merged into the overflow of its partition,
+ * one entry per movie, counted as "movies.summaries.overflow", and the worker picks it up with its next batch.
+ * {@link #rebuild()} regenerates every summary through the same queues and then removes summaries of movies that no
+ * longer exist; it also runs on startup while the read model is empty.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class MovieSummaryPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieSummaryPipeline.class);
+
+    /**
+     * Number of characters of the newest review shown on a card.
+     */
+    static final int SNIPPET_LENGTH = 200;
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    /**
+     * How long an idle worker waits for an event before looking at the overflow of its partition again.
+     */
+    private static final long POLL_MILLIS = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration rebuildTimeout;
+    private final List<Partition> partitions = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final Counter overflowed;
+    private final Counter failed;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    @Autowired
+    public MovieSummaryPipeline(MongoTemplate mongoTemplate, MeterRegistry meterRegistry,
+                                @Value("${movies.summaries.partitions:4}") int partitionCount,
+                                @Value("${movies.summaries.batch-size:500}") int batchSize,
+                                @Value("${movies.summaries.queue-capacity:100000}") int queueCapacity,
+                                @Value("${movies.summaries.max-attempts:5}") int maxAttempts,
+                                @Value("${movies.summaries.rebuild-timeout:30m}") Duration rebuildTimeout) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.rebuildTimeout = rebuildTimeout;
+        for (int i = 0; i < partitionCount; i++) {
+            Partition partition = new Partition(new LinkedBlockingQueue<>(queueCapacity), ConcurrentHashMap.newKeySet());
+            partitions.add(partition);
+            workers.add(Thread.ofPlatform().name("movie-summaries-" + i).daemon().start(() -> work(partition)));
+        }
+        this.overflowed = Counter.builder("movies.summaries.overflow").register(meterRegistry);
+        this.failed = Counter.builder("movies.summaries.failed").register(meterRegistry);
+        Gauge.builder("movies.summaries.pending", partitions,
+                        all -> all.stream().mapToInt(partition -> partition.queue().size() + partition.overflow().size()).sum())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the refresh of the summary of the changed movie, it never blocks.
+     */
+    @EventListener
+    public void onMovieChanged(MovieChangedEvent event) {
+        if (event.imdbId() == null) {
+            return;
+        }
+        Partition partition = partitionOf(event.imdbId());
+        if (!partition.queue().offer(new Task(event.imdbId(), null))) {
+            partition.overflow().add(event.imdbId());
+            overflowed.increment();
+        }
+    }
+
+    /**
+     * Builds the read model on the first start, once the migrations have run.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        if (!mongoTemplate.exists(new Query(), MovieSummary.class) && mongoTemplate.exists(new Query(), Movie.class)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * This method starts regenerating every summary in the background. Every movie is queued for a refresh, waiting for
+     * room in the queues instead of overflowing, and once all of them are written the summaries that were not
+     * refreshed since the rebuild started, i.e. those of deleted movies, are removed. Nothing is removed when a refresh
+     * failed or the rebuild took longer than "movies.summaries.rebuild-timeout".
+     *
+     * @return false if a rebuild is already running, true otherwise.
+     */
+    public boolean rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            Thread.ofPlatform().name("movie-summaries-rebuild").daemon().start(() -> {
+                try {
+                    rebuildAll();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException | TimeoutException | RuntimeException e) {
+                    log.warn("Rebuilding the movie summaries failed, stale summaries are kept", e);
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            rebuilding.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * This method queues every movie and waits until all of them are written, then removes the stale summaries.
+     *
+     * @throws ExecutionException if a refresh queued before the end of the rebuild was skipped.
+     * @throws TimeoutException if it did not finish within "movies.summaries.rebuild-timeout".
+     */
+    void rebuildAll() throws InterruptedException, ExecutionException, TimeoutException {
+        Instant started = Instant.now();
+        long deadline = System.nanoTime() + rebuildTimeout.toNanos();
+        Query allMovies = new Query().cursorBatchSize(batchSize);
+        allMovies.fields().include("imdbId").exclude("_id");
+        long queued = 0;
+        try (Stream<Document> movies = mongoTemplate.stream(allMovies, Document.class, mongoTemplate.getCollectionName(Movie.class))) {
+            Iterator<Document> iterator = movies.iterator();
+            while (iterator.hasNext()) {
+                String imdbId = iterator.next().getString("imdbId");
+                if (imdbId != null) {
+                    enqueue(partitionOf(imdbId), new Task(imdbId, null), deadline);
+                    queued++;
+                }
+            }
+        }
+        // A marker behind the last movie of every partition completes once everything before it is written.
+        List<CompletableFuture<Void>> written = new ArrayList<>();
+        for (Partition partition : partitions) {
+            CompletableFuture<Void> marker = new CompletableFuture<>();
+            enqueue(partition, new Task(null, marker), deadline);
+            written.add(marker);
+        }
+        CompletableFuture.allOf(written.toArray(CompletableFuture[]::new))
+                .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        long removed = mongoTemplate.remove(Query.query(new Criteria().orOperator(
+                        Criteria.where("refreshedAt").lt(started), Criteria.where("refreshedAt").exists(false))),
+                MovieSummary.class).getDeletedCount();
+        log.info("Rebuilt the summaries of {} movies, removed {} stale summaries", queued, removed);
+    }
+
+    private static void enqueue(Partition partition, Task task, long deadline) throws InterruptedException, TimeoutException {
+        if (!partition.queue().offer(task, deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+            throw new TimeoutException("Movie summary queue stayed full until the rebuild timed out");
+        }
+    }
+
+    private Partition partitionOf(String imdbId) {
+        return partitions.get(Math.floorMod(imdbId.hashCode(), partitions.size()));
+    }
+
+    private void work(Partition partition) {
+        List<Task> drained = new ArrayList<>(batchSize);
+        Set<String> changed = new LinkedHashSet<>();
+        // Whether a batch was skipped since the last marker, the marker then fails the rebuild waiting for it.
+        boolean skipped = false;
+        try {
+            while (true) {
+                Task first = partition.queue().poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    drained.add(first);
+                    partition.queue().drainTo(drained, batchSize - 1);
+                }
+                for (Task task : drained) {
+                    if (task.imdbId() != null) {
+                        changed.add(task.imdbId());
+                    } else {
+                        drainOverflow(partition, changed);
+                        skipped |= !refreshWithRetries(changed);
+                        if (skipped) {
+                            task.marker().completeExceptionally(new IllegalStateException("Movie summary refreshes were skipped"));
+                        } else {
+                            task.marker().complete(null);
+                        }
+                        skipped = false;
+                    }
+                }
+                drained.clear();
+                drainOverflow(partition, changed);
+                skipped |= !refreshWithRetries(changed);
+            }
+        } catch (InterruptedException e) {
+            // Stopped on shutdown, the events still queued are recovered by the next rebuild.
+            partition.queue().drainTo(drained);
+            drained.stream().filter(task -> task.marker() != null)
+                    .forEach(task -> task.marker().completeExceptionally(new IllegalStateException("Movie summaries stopped")));
+        }
+    }
+
+    private static void drainOverflow(Partition partition, Set<String> changed) {
+        for (String imdbId : partition.overflow()) {
+            if (partition.overflow().remove(imdbId)) {
+                changed.add(imdbId);
+            }
+        }
+    }
+
+    /**
+     * @return false if the changes were skipped after "movies.summaries.max-attempts" failed attempts.
+     */
+    private boolean refreshWithRetries(Set<String> changed) throws InterruptedException {
+        for (int attempt = 1; !changed.isEmpty(); attempt++) {
+            try {
+                refresh(changed);
+                changed.clear();
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    log.error("Refreshing {} movie summaries failed {} times, skipped until the next rebuild",
+                            changed.size(), attempt, e);
+                    failed.increment(changed.size());
+                    changed.clear();
+                    return false;
+                }
+                log.warn("Refreshing {} movie summaries failed, retrying", changed.size(), e);
+                Thread.sleep(RETRY_DELAY_MILLIS);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method derives the summaries of the given movies from their current state, removing those of deleted movies.
+     *
+     * @param imdbIds are the imdbIds of the movies to refresh.
+     */
+    void refresh(Collection<String> imdbIds) {
+        Query movieQuery = Query.query(Criteria.where("imdbId").in(imdbIds));
+        movieQuery.fields().include("imdbId").include("title").include("poster").include("genres").include("reviewCount")
+                .exclude("_id");
+        Map<String, Document> movies = new HashMap<>();
+        mongoTemplate.find(movieQuery, Document.class, mongoTemplate.getCollectionName(Movie.class))
+                .forEach(movie -> movies.put(movie.getString("imdbId"), movie));
+
+        // The newest non-empty bucket of a movie holds its newest review last; the sort follows the imdbId_id index.
+        Aggregation newestReviews = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("imdbId").in(movies.keySet()).and("reviews.0").exists(true)),
+                Aggregation.sort(Sort.by(Sort.Order.asc("imdbId"), Sort.Order.desc("_id"))),
+                Aggregation.group("imdbId").first(ArrayOperators.ArrayElemAt.arrayOf("reviews").elementAt(-1)).as("latest"));
+        Map<String, Document> latestReviews = new HashMap<>();
+        if (!movies.isEmpty()) {
+            mongoTemplate.aggregate(newestReviews, mongoTemplate.getCollectionName(ReviewBucket.class), Document.class)
+                    .forEach(result -> latestReviews.put(result.getString("_id"), result.get("latest", Document.class)));
+        }
+
+        Instant now = Instant.now();
+        BulkOperations summaries = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MovieSummary.class);
+        for (String imdbId : imdbIds) {
+            Query summary = Query.query(Criteria.where("_id").is(imdbId));
+            Document movie = movies.get(imdbId);
+            if (movie == null) {
+                summaries.remove(summary);
+                continue;
+            }
+            Document latest = latestReviews.get(imdbId);
+            summaries.upsert(summary, new Update()
+                    .set("title", movie.getString("title"))
+                    .set("poster", movie.getString("poster"))
+                    .set("genres", movie.getList("genres", String.class))
+                    .set("reviewCount", movie.get("reviewCount"))
+                    .set("latestReview", latest == null ? null : snippet(latest.getString("body")))
+                    .set("latestReviewAt", latest == null ? null : latest.getDate("createdAt"))
+                    .set("refreshedAt", now));
+        }
+        summaries.execute();
+    }
+
+    private static String snippet(String body) {
+        if (body == null || body.codePointCount(0, body.length()) <= SNIPPET_LENGTH) {
+            return body;
+        }
+        return body.substring(0, body.offsetByCodePoints(0, SNIPPET_LENGTH)) + "…";
+    }
+
+    /**
+     * Stops the workers. Events still queued are dropped; the next rebuild recovers them.
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.forEach(Thread::interrupt);
+    }
+
+    /**
+     * A movie to refresh, or, without an imdbId, a marker completed once everything queued before it is written.
+     */
+    private record Task(String imdbId, CompletableFuture<Void> marker) {
+    }
+
+    /**
+     * The queue of a worker, and the changes that did not fit in it, per imdbId.
+     */
+    private record Partition(LinkedBlockingQueue<Task> queue, Set<String> overflow) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.md.MovieReview.MovieReview.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class hands out the version a movie starts with when it is added, whatever version the client sent.
+ * Versions are timestamps in microseconds, kept increasing within the process, so a movie deleted and added again with
+ * the same imdbId starts above every version, and thus every ETag, its predecessor was served with, unless that one was
+ * written more than a thousand times per millisecond. They stay below 2^53, so JavaScript clients read them exactly.
+ */
+public final class MovieVersions {
+
+    private static final AtomicLong lastVersion = new AtomicLong();
+
+    private MovieVersions() {
+    }
+
+    /**
+     * @return a version larger than every one returned before, and at least the current time in microseconds.
+     */
+    public static long initial() {
+        long now = System.currentTimeMillis() * 1000;
+        return lastVersion.updateAndGet(previous -> Math.max(previous + 1, now));
+    }
+}
@@ -0,0 +1,40 @@
+package com.md.MovieReview.MovieReview.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+/**
+ * This class converts the free-form "releaseDate" string of a movie into the typed "releasedAt" instant.
+ * Release dates are calendar days, they are stored as midnight UTC so that year facets do not depend on the server time zone.
+ */
+public final class ReleaseDates {
+
+    private ReleaseDates() {
+    }
+
+    /**
+     * This method parses a release date such as "2022-12-21".
+     *
+     * @param releaseDate is the release date as stored in the "releaseDate" field, may be null.
+     * @return the start of that day in UTC, or null if the value is missing or not an ISO date.
+     */
+    public static Instant parse(String releaseDate) {
+        if (releaseDate == null || releaseDate.isBlank()) {
+            return null;
+        }
+        try {
+            return startOfDay(LocalDate.parse(releaseDate.trim()));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the start of the given day in UTC.
+     */
+    public static Instant startOfDay(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+}
@@ -0,0 +1,262 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.md.MovieReview.MovieReview.document.BucketedReview;
+import com.md.MovieReview.MovieReview.document.Review;
+import com.md.MovieReview.MovieReview.document.ReviewBucket;
+import com.md.MovieReview.MovieReview.dto.ReviewPage;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class reads and writes the review buckets of the movies, see ReviewBucket for the layout.
+ *
+ * <p>The queries and updates are exposed as well, so the reactive serving mode can run the very same writes with its
+ * own template.
+ */
+@Component
+public class ReviewBuckets {
+
+    /**
+     * Upper bound for the attempts to append one review, each failed attempt closes a full bucket.
+     */
+    public static final int MAX_APPEND_ATTEMPTS = 3;
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final int bucketSize;
+
+    @Autowired
+    public ReviewBuckets(MongoTemplate mongoTemplate, @Value("${reviews.buckets.size:100}") int bucketSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.bucketSize = bucketSize;
+    }
+
+    /**
+     * @return the number of reviews a bucket takes before a new one is started.
+     */
+    public int bucketSize() {
+        return bucketSize;
+    }
+
+    /**
+     * This method selects the bucket a new review of the movie is appended to: its open bucket, as long as it is not full.
+     * Upserting with it starts the open bucket when there is none. When the open bucket is full, the upsert fails on the
+     * unique index on open buckets; the full bucket is then closed with {@link #fullOpenBucket(String)} and {@link #close()}
+     * and the append retried, up to {@value #MAX_APPEND_ATTEMPTS} attempts.
+     *
+     * @param imdbId is the imdbId of the reviewed movie.
+     * @return the query matching the open bucket of the movie.
+     */
+    public Query appendTarget(String imdbId) {
+        return Query.query(Criteria.where("imdbId").is(imdbId).and("open").is(true).and("count").lt(bucketSize));
+    }
+
+    /**
+     * @return the query matching the open bucket of the movie once it is full.
+     */
+    public Query fullOpenBucket(String imdbId) {
+        return Query.query(Criteria.where("imdbId").is(imdbId).and("open").is(true).and("count").gte(bucketSize));
+    }
+
+    /**
+     * @return the update closing the bucket matched by {@link #fullOpenBucket(String)}, so a new one can be started.
+     */
+    public Update close() {
+        return new Update().set("open", false);
+    }
+
+    /**
+     * @return the update appending the review to the bucket selected by {@link #appendTarget(String)}.
+     */
+    public Update append(Review review) {
+        return new Update().push("reviews", BucketedReview.of(review)).inc("count", 1);
+    }
+
+    /**
+     * @return the query matching the bucket holding the given review, also for reviews written before they carried their imdbId.
+     */
+    public Query holding(Review review) {
+        Criteria criteria = Criteria.where("reviews.reviewId").is(review.getId());
+        if (review.getImdbId() != null) {
+            criteria.and("imdbId").is(review.getImdbId());
+        }
+        return Query.query(criteria);
+    }
+
+    /**
+     * @return the update replacing the body of the review matched by {@link #holding(Review)}.
+     */
+    public Update body(Review review) {
+        return new Update().set("reviews.$.body", review.getBody());
+    }
+
+    /**
+     * This method appends a review to the open bucket of its movie, starting a new bucket if needed.
+     *
+     * @param review is the inserted review, it must carry its imdbId.
+     */
+    public void add(Review review) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                mongoTemplate.upsert(appendTarget(review.getImdbId()), append(review), ReviewBucket.class);
+                return;
+            } catch (DuplicateKeyException e) {
+                if (attempt == MAX_APPEND_ATTEMPTS) {
+                    throw e;
+                }
+                mongoTemplate.updateFirst(fullOpenBucket(review.getImdbId()), close(), ReviewBucket.class);
+            }
+        }
+    }
+
+    /**
+     * This method appends many reviews with one bulk write. The bulk is ordered, so each append sees the buckets
+     * filled or started by the ones before it. When an append fails because the open bucket of its movie is full, the
+     * bucket is closed and the appends are resumed from the failed one.
+     *
+     * @param reviews are the inserted reviews, in the order they are appended.
+     */
+    public void addAll(List<Review> reviews) {
+        int from = 0;
+        int attempt = 1;
+        while (from < reviews.size()) {
+            BulkOperations appends = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, ReviewBucket.class);
+            for (Review review : reviews.subList(from, reviews.size())) {
+                appends.upsert(appendTarget(review.getImdbId()), append(review));
+            }
+            try {
+                appends.execute();
+                return;
+            } catch (BulkOperationException e) {
+                BulkWriteError error = e.getErrors().isEmpty() ? null : e.getErrors().get(0);
+                if (error == null || error.getCode() != DUPLICATE_KEY || attempt == MAX_APPEND_ATTEMPTS) {
+                    throw e;
+                }
+                // The appends before the failed one are written, an ordered bulk stops at the first error.
+                from += error.getIndex();
+                mongoTemplate.updateFirst(fullOpenBucket(reviews.get(from).getImdbId()), close(), ReviewBucket.class);
+                attempt = error.getIndex() > 0 ? 1 : attempt + 1;
+            }
+        }
+    }
+
+    /**
+     * This method copies the new bodies of edited reviews into their buckets with one bulk write.
+     *
+     * @param reviews are the reviews as written to the "reviews" collection.
+     */
+    public void updateBodies(Collection<Review> reviews) {
+        BulkOperations updates = null;
+        for (Review review : reviews) {
+            if (updates == null) {
+                updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ReviewBucket.class);
+            }
+            updates.updateOne(holding(review), body(review));
+        }
+        if (updates != null) {
+            updates.execute();
+        }
+    }
+
+    /**
+     * This method removes deleted reviews from their buckets with one bulk write, and drops closed buckets left empty.
+     *
+     * @param reviewIds are the ids of the deleted reviews.
+     */
+    public void removeReviews(Collection<ObjectId> reviewIds) {
+        if (reviewIds.isEmpty()) {
+            return;
+        }
+        Query holding = Query.query(Criteria.where("reviews.reviewId").in(reviewIds));
+        holding.fields().include("_id");
+        List<ObjectId> bucketIds = mongoTemplate.find(holding, Document.class, mongoTemplate.getCollectionName(ReviewBucket.class))
+                .stream().map(bucket -> bucket.getObjectId("_id")).toList();
+        if (bucketIds.isEmpty()) {
+            return;
+        }
+        BulkOperations pulls = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ReviewBucket.class);
+        for (ObjectId reviewId : reviewIds) {
+            pulls.updateOne(Query.query(Criteria.where("_id").in(bucketIds).and("reviews.reviewId").is(reviewId)), remove(reviewId));
+        }
+        pulls.execute();
+        dropEmptyBuckets(Criteria.where("_id").in(bucketIds));
+    }
+
+    /**
+     * This method removes deleted reviews of one movie from its buckets with one bulk write, one conditional pull per review,
+     * so a review removed earlier is not counted again.
+     *
+     * @param imdbId is the imdbId of the movie.
+     * @param reviewIds are the ids of its deleted reviews.
+     * @return the number of reviews actually removed.
+     */
+    public long removeReviews(String imdbId, Collection<ObjectId> reviewIds) {
+        if (reviewIds.isEmpty()) {
+            return 0;
+        }
+        BulkOperations pulls = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ReviewBucket.class);
+        for (ObjectId reviewId : reviewIds) {
+            pulls.updateOne(Query.query(Criteria.where("imdbId").is(imdbId).and("reviews.reviewId").is(reviewId)), remove(reviewId));
+        }
+        long removed = pulls.execute().getModifiedCount();
+        dropEmptyBuckets(Criteria.where("imdbId").is(imdbId));
+        return removed;
+    }
+
+    /**
+     * Pulls one review from the bucket matched by a query naming it, so a review removed earlier is not counted again.
+     */
+    private static Update remove(ObjectId reviewId) {
+        return new Update().pull("reviews", new Document("reviewId", reviewId)).inc("count", -1);
+    }
+
+    /**
+     * Drops the empty buckets among those just changed; the open bucket of a movie stays even when empty.
+     */
+    private void dropEmptyBuckets(Criteria changed) {
+        mongoTemplate.remove(Query.query(changed.and("count").is(0).and("open").ne(true)), ReviewBucket.class);
+    }
+
+    /**
+     * This method reads one page of the reviews of a movie, which is one bucket, newest reviews first.
+     *
+     * @param imdbId is the imdbId of the movie.
+     * @param cursor is the cursor returned with the previous page, or null for the newest reviews.
+     * @return the reviews of the page, with the cursor of the next page, which is null on the last page.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public ReviewPage page(String imdbId, String cursor) {
+        // Buckets whose reviews were all deleted are skipped, so no page is empty unless the movie has no reviews.
+        Criteria criteria = Criteria.where("imdbId").is(imdbId).and("reviews.0").exists(true);
+        if (cursor != null && !cursor.isBlank()) {
+            criteria.and("_id").lt(new ObjectId(cursor));
+        }
+        ReviewBucket bucket = mongoTemplate.findOne(Query.query(criteria).with(Sort.by(Sort.Direction.DESC, "_id")), ReviewBucket.class);
+        if (bucket == null) {
+            return new ReviewPage(Collections.emptyList(), null);
+        }
+        List<BucketedReview> reviews = new ArrayList<>(bucket.getReviews());
+        Collections.reverse(reviews);
+        Query older = Query.query(Criteria.where("imdbId").is(imdbId).and("_id").lt(bucket.getId()).and("reviews.0").exists(true));
+        boolean hasOlder = mongoTemplate.exists(older, ReviewBucket.class);
+        return new ReviewPage(reviews, hasOlder ? bucket.getId().toHexString() : null);
+    }
+}
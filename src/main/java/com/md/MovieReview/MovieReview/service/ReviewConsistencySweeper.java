@@ -0,0 +1,188 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.Review;
+import com.md.MovieReview.MovieReview.document.ReviewBucket;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * This class repairs, a small batch at a time, review references left inconsistent by earlier deletes or failed cleanups.
+ *
+ * <p>Every {@code reviews.cleanup.sweep.interval-ms} it looks at the next {@code reviews.cleanup.sweep.batch-size}
+ * documents, walking the "movies", "review_buckets" and "reviews" collections in _id order and starting over once
+ * all were covered. Ids of reviews that no longer exist, found in movies or in buckets, are removed through the
+ * ReviewReferenceCleanup, which decrements the review counts only for what it actually removes; buckets are read a few
+ * at a time, so that at most about a batch of review ids is checked per tick.
+ * In reviews, those whose movie is gone, or which never had one, are deleted.
+ *
+ * <p>The work per tick is bounded by the batch size, and a tick is skipped while more than
+ * {@code reviews.cleanup.sweep.max-pool-usage} of the MongoDB connection pool is checked out, so the sweeper backs off
+ * as soon as foreground traffic needs the connections.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "reviews.cleanup.sweep.enabled", havingValue = "true", matchIfMissing = true)
+public class ReviewConsistencySweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewConsistencySweeper.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final ReviewReferenceCleanup cleanup;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final int bucketBatchSize;
+    private final double maxCheckedOut;
+
+    private Phase phase = Phase.MOVIES;
+    private ObjectId position;
+
+    @Autowired
+    public ReviewConsistencySweeper(MongoTemplate mongoTemplate, ReviewReferenceCleanup cleanup, ReviewBuckets reviewBuckets,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${reviews.cleanup.sweep.batch-size:200}") int batchSize,
+                                    @Value("${reviews.cleanup.sweep.max-pool-usage:0.5}") double maxPoolUsage,
+                                    @Value("${app.mongo.pool.max-size:50}") int poolMaxSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.cleanup = cleanup;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = Math.min(batchSize, ReviewReferenceCleanup.CHUNK_SIZE);
+        this.bucketBatchSize = Math.max(1, this.batchSize / reviewBuckets.bucketSize());
+        this.maxCheckedOut = maxPoolUsage * poolMaxSize;
+    }
+
+    /**
+     * Repairs the next batch, it runs on the scheduler thread.
+     */
+    @Scheduled(initialDelayString = "${reviews.cleanup.sweep.interval-ms:10000}",
+            fixedDelayString = "${reviews.cleanup.sweep.interval-ms:10000}")
+    public void sweep() {
+        if (checkedOutConnections() > maxCheckedOut) {
+            return;
+        }
+        try {
+            int limit = phase == Phase.BUCKETS ? bucketBatchSize : batchSize;
+            List<Document> batch = switch (phase) {
+                case MOVIES -> nextBatch(Movie.class, limit, "imdbId", "reviewIds");
+                case BUCKETS -> nextBatch(ReviewBucket.class, limit, "imdbId", "reviews.reviewId");
+                case REVIEWS -> nextBatch(Review.class, limit, "imdbId");
+            };
+            long repaired = switch (phase) {
+                case MOVIES -> removeDangling(batch, MovieReviewResolver::detachReviewIds);
+                case BUCKETS -> removeDangling(batch, ReviewConsistencySweeper::bucketedReviewIds);
+                case REVIEWS -> deleteOrphans(batch);
+            };
+            if (repaired > 0) {
+                log.info("Sweeper repaired {} references in {}", repaired, phase);
+            }
+            if (batch.size() < limit) {
+                phase = phase.next();
+                position = null;
+            } else {
+                position = batch.get(batch.size() - 1).getObjectId("_id");
+            }
+        } catch (RuntimeException e) {
+            log.warn("Sweeping review references failed, retrying the same batch on the next tick", e);
+        }
+    }
+
+    private List<Document> nextBatch(Class<?> type, int limit, String... fields) {
+        Query query = new Query().with(Sort.by("_id")).limit(limit);
+        if (position != null) {
+            query.addCriteria(Criteria.where("_id").gt(position));
+        }
+        query.fields().include(fields);
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(type));
+    }
+
+    /**
+     * Removes the ids of reviews that no longer exist from the given movies or buckets, returning how many were found.
+     */
+    private long removeDangling(List<Document> documents, Function<Document, List<ObjectId>> reviewIdsOf) {
+        Map<ObjectId, String> referenced = new LinkedHashMap<>();
+        for (Document document : documents) {
+            reviewIdsOf.apply(document).forEach(reviewId -> referenced.put(reviewId, document.getString("imdbId")));
+        }
+        if (referenced.isEmpty()) {
+            return 0;
+        }
+        Query existing = Query.query(Criteria.where("_id").in(referenced.keySet()));
+        existing.fields().include("_id");
+        mongoTemplate.find(existing, Document.class, mongoTemplate.getCollectionName(Review.class))
+                .forEach(review -> referenced.remove(review.getObjectId("_id")));
+        Map<String, List<ObjectId>> idsPerMovie = new LinkedHashMap<>();
+        List<ObjectId> untagged = new ArrayList<>();
+        referenced.forEach((reviewId, imdbId) -> {
+            if (imdbId == null) {
+                untagged.add(reviewId);
+            } else {
+                idsPerMovie.computeIfAbsent(imdbId, key -> new ArrayList<>()).add(reviewId);
+            }
+        });
+        cleanup.removeDeleted(idsPerMovie, untagged);
+        return referenced.size();
+    }
+
+    private static List<ObjectId> bucketedReviewIds(Document bucket) {
+        List<ObjectId> reviewIds = new ArrayList<>();
+        for (Document review : bucket.getList("reviews", Document.class, List.of())) {
+            if (review.get("reviewId") instanceof ObjectId reviewId) {
+                reviewIds.add(reviewId);
+            }
+        }
+        return reviewIds;
+    }
+
+    private long deleteOrphans(List<Document> reviews) {
+        Set<String> imdbIds = new HashSet<>();
+        reviews.forEach(review -> imdbIds.add(review.getString("imdbId")));
+        imdbIds.remove(null);
+        Set<String> existingMovies = new HashSet<>();
+        if (!imdbIds.isEmpty()) {
+            Query movies = Query.query(Criteria.where("imdbId").in(imdbIds));
+            movies.fields().include("imdbId");
+            mongoTemplate.find(movies, Document.class, mongoTemplate.getCollectionName(Movie.class))
+                    .forEach(movie -> existingMovies.add(movie.getString("imdbId")));
+        }
+        // Reviews created before they carried their imdbId are left alone until ReviewMovieBackfill has tagged them.
+        List<ObjectId> orphans = reviews.stream()
+                .filter(review -> review.containsKey("imdbId") && !existingMovies.contains(review.getString("imdbId")))
+                .map(review -> review.getObjectId("_id"))
+                .toList();
+        return cleanup.deleteReviews(orphans);
+    }
+
+    private double checkedOutConnections() {
+        return meterRegistry.find("mongodb.driver.pool.checkedout").gauges().stream().mapToDouble(Gauge::value).sum();
+    }
+
+    private enum Phase {
+        MOVIES, BUCKETS, REVIEWS;
+
+        Phase next() {
+            return values()[(ordinal() + 1) % values().length];
+        }
+    }
+}
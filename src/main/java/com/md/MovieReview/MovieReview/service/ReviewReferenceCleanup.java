@@ -0,0 +1,301 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.MovieDeletion;
+import com.md.MovieReview.MovieReview.document.Review;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * This class removes, in the background, what deleting a review or a movie leaves behind.
+ *
+ * <p>Deleting a review queues its id, and every {@code reviews.cleanup.flush-interval-ms} the queued ids are removed
+ * from their movies and review buckets. "reviewCount" is only decremented for a review whose removal actually happened,
+ * so a review deleted twice, or also repaired by the ReviewConsistencySweeper, is not counted twice. This queue only lives
+ * in memory; what a restart loses is found again by the sweeper.
+ *
+ * <p>Deleting a movie records a MovieDeletion, and its reviews are then deleted along with their bucket copies: first
+ * those the movie referenced, then those carrying its imdbId as long as no movie with that imdbId exists again. Like the
+ * ReviewConsistencySweeper, every flush deletes at most {@code reviews.cleanup.sweep.batch-size} of them, and none while
+ * more than {@code reviews.cleanup.sweep.max-pool-usage} of the MongoDB connection pool is checked out. The record is
+ * removed once nothing is left. A MovieChangedEvent is published for every movie whose review count changed. Unlike the other services it is used by both serving modes, the reactive services queue their
+ * deletes here as well.
+ */
+@Component
+public class ReviewReferenceCleanup {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewReferenceCleanup.class);
+
+    /**
+     * Upper bound for the number of ids handled by one write.
+     */
+    static final int CHUNK_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final MovieCache movieCache;
+    private final ReviewBuckets reviewBuckets;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final boolean countedByReviewIds;
+    private final int batchSize;
+    private final double maxCheckedOut;
+    private final LinkedBlockingQueue<DeletedReview> deletedReviews = new LinkedBlockingQueue<>();
+
+    /**
+     * Set whenever a movie deletion is recorded; it starts set so deletions left over from before a restart are resumed.
+     */
+    private volatile boolean movieDeletionsPending = true;
+
+    @Autowired
+    public ReviewReferenceCleanup(MongoTemplate mongoTemplate, MovieCache movieCache, ReviewBuckets reviewBuckets,
+                                  ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                                  @Value("${reviews.movie-review-ids.enabled:true}") boolean countedByReviewIds,
+                                  @Value("${reviews.cleanup.sweep.batch-size:200}") int batchSize,
+                                  @Value("${reviews.cleanup.sweep.max-pool-usage:0.5}") double maxPoolUsage,
+                                  @Value("${app.mongo.pool.max-size:50}") int poolMaxSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.movieCache = movieCache;
+        this.reviewBuckets = reviewBuckets;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.countedByReviewIds = countedByReviewIds;
+        this.batchSize = Math.max(1, Math.min(batchSize, CHUNK_SIZE));
+        this.maxCheckedOut = maxPoolUsage * poolMaxSize;
+    }
+
+    /**
+     * This method queues the removal of a deleted review from the movies referencing it. It never blocks.
+     *
+     * @param reviewId is the ObjectId of the deleted review.
+     * @param imdbId is the imdbId of its movie, evicted from the cache once the reference is gone, may be null.
+     */
+    public void reviewDeleted(ObjectId reviewId, String imdbId) {
+        deletedReviews.add(new DeletedReview(reviewId, imdbId));
+    }
+
+    /**
+     * This method records the deletion of a movie, whose reviews are then deleted in the background.
+     * It is called once the movie is deleted, so its reviews are never deleted while it still exists.
+     *
+     * @param movieId is the ObjectId of the deleted movie.
+     * @param imdbId is the imdbId of the deleted movie, its reviews are deleted unless a movie with it is created again.
+     * @param reviewIds are the reviews the movie referenced, deleted as well in case they do not carry the imdbId.
+     */
+    public void movieDeleted(ObjectId movieId, String imdbId, Collection<ObjectId> reviewIds) {
+        mongoTemplate.save(MovieDeletion.of(movieId, imdbId, reviewIds));
+        movieDeletionRecorded();
+    }
+
+    /**
+     * Tells the cleanup that a MovieDeletion was written, for the reactive mode which writes it with its own template.
+     */
+    public void movieDeletionRecorded() {
+        movieDeletionsPending = true;
+    }
+
+    /**
+     * Drains the queue of deleted reviews and deletes the next batch of a recorded movie deletion, it runs on the scheduler
+     * thread.
+     */
+    @Scheduled(fixedDelayString = "${reviews.cleanup.flush-interval-ms:200}")
+    public void flush() {
+        try {
+            List<DeletedReview> reviews = new ArrayList<>();
+            while (deletedReviews.drainTo(reviews, CHUNK_SIZE) > 0) {
+                Map<String, List<ObjectId>> idsPerMovie = new LinkedHashMap<>();
+                List<ObjectId> untagged = new ArrayList<>();
+                for (DeletedReview review : reviews) {
+                    if (review.imdbId() == null) {
+                        untagged.add(review.reviewId());
+                    } else {
+                        idsPerMovie.computeIfAbsent(review.imdbId(), key -> new ArrayList<>()).add(review.reviewId());
+                    }
+                }
+                removeDeleted(idsPerMovie, untagged);
+                reviews.clear();
+            }
+            if (movieDeletionsPending) {
+                movieDeletionsPending = false;
+                if (!continueMovieDeletions()) {
+                    movieDeletionsPending = true;
+                }
+            }
+        } catch (RuntimeException e) {
+            // The recorded movie deletions are retried on the next flush, the sweeper repairs the rest.
+            movieDeletionsPending = true;
+            log.warn("Cleaning up after deleted reviews and movies failed", e);
+        }
+    }
+
+    /**
+     * This method removes deleted reviews from their movies and buckets, and decrements the review count of a movie once
+     * for every review actually removed.
+     *
+     * <p>While review ids are pushed onto the movies ("reviews.movie-review-ids.enabled"), every counted review is in
+     * "reviewIds", so each review is pulled with a conditional update that decrements in the same write; all of them go in
+     * one bulk write. Otherwise the bucket is what holds every counted review: the reviews of each movie are pulled from
+     * its buckets with one bulk write, and the movie is decremented by the number of reviews that write removed.
+     *
+     * @param idsPerMovie are the ids of deleted reviews per imdbId of their movie.
+     * @param untagged are the ids of deleted reviews whose movie is not known.
+     */
+    void removeDeleted(Map<String, ? extends Collection<ObjectId>> idsPerMovie, Collection<ObjectId> untagged) {
+        String movieCollection = mongoTemplate.getCollectionName(Movie.class);
+        BulkOperations movies = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, movieCollection);
+        boolean pending = false;
+        if (countedByReviewIds) {
+            for (Map.Entry<String, ? extends Collection<ObjectId>> entry : idsPerMovie.entrySet()) {
+                for (ObjectId reviewId : entry.getValue()) {
+                    movies.updateOne(Query.query(Criteria.where("imdbId").is(entry.getKey()).and("reviewIds").is(reviewId)),
+                            decrement(reviewId));
+                    pending = true;
+                }
+            }
+            for (ObjectId reviewId : untagged) {
+                movies.updateOne(Query.query(Criteria.where("reviewIds").is(reviewId)), decrement(reviewId));
+                pending = true;
+            }
+            if (pending) {
+                movies.execute();
+            }
+            List<ObjectId> all = new ArrayList<>(untagged);
+            idsPerMovie.values().forEach(all::addAll);
+            reviewBuckets.removeReviews(all);
+        } else {
+            for (Map.Entry<String, ? extends Collection<ObjectId>> entry : idsPerMovie.entrySet()) {
+                long removed = reviewBuckets.removeReviews(entry.getKey(), entry.getValue());
+                movies.updateOne(Query.query(Criteria.where("imdbId").is(entry.getKey())),
+                        new Update().pullAll("reviewIds", entry.getValue().toArray()).inc("reviewCount", -removed).inc("version", 1));
+                pending = true;
+            }
+            if (pending) {
+                movies.execute();
+            }
+            reviewBuckets.removeReviews(untagged);
+        }
+        idsPerMovie.keySet().forEach(this::changed);
+    }
+
+    private static Update decrement(ObjectId reviewId) {
+        return new Update().pull("reviewIds", reviewId).inc("reviewCount", -1).inc("version", 1);
+    }
+
+    private void changed(String imdbId) {
+        movieCache.invalidate(imdbId);
+        eventPublisher.publishEvent(new MovieChangedEvent(imdbId));
+    }
+
+    /**
+     * This method deletes the reviews with the given ids, {@value #CHUNK_SIZE} at a time, along with their bucket copies.
+     *
+     * @param reviewIds are the ids of the reviews to delete.
+     * @return the number of reviews deleted.
+     */
+    long deleteReviews(Collection<ObjectId> reviewIds) {
+        long deleted = 0;
+        List<ObjectId> chunk = new ArrayList<>(Math.min(reviewIds.size(), CHUNK_SIZE));
+        for (ObjectId reviewId : reviewIds) {
+            chunk.add(reviewId);
+            if (chunk.size() == CHUNK_SIZE) {
+                deleted += deleteChunk(chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            deleted += deleteChunk(chunk);
+        }
+        return deleted;
+    }
+
+    private long deleteChunk(List<ObjectId> chunk) {
+        long deleted = mongoTemplate.remove(Query.query(Criteria.where("_id").in(chunk)), Review.class).getDeletedCount();
+        reviewBuckets.removeReviews(chunk);
+        return deleted;
+    }
+
+    /**
+     * This method deletes the next batch of reviews of a recorded movie deletion, unless the connection pool is busy.
+     *
+     * @return true once no movie deletion is left.
+     */
+    private boolean continueMovieDeletions() {
+        if (checkedOutConnections() > maxCheckedOut) {
+            return false;
+        }
+        MovieDeletion deletion = mongoTemplate.findOne(new Query(), MovieDeletion.class);
+        if (deletion == null) {
+            return true;
+        }
+        List<ObjectId> recorded = deletion.getReviewIds() == null ? List.of() : deletion.getReviewIds();
+        if (!recorded.isEmpty()) {
+            List<ObjectId> batch = recorded.subList(0, Math.min(batchSize, recorded.size()));
+            long deleted = deleteReviews(batch);
+            // The progress is kept in the record, so a restart resumes with the next batch.
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(deletion.getMovieId())),
+                    new Update().pullAll("reviewIds", batch.toArray()), MovieDeletion.class);
+            log.debug("Deleted {} referenced reviews of deleted movie {}", deleted, deletion.getImdbId());
+            return false;
+        }
+        if (deletion.getImdbId() != null && deleteReviewsCarrying(deletion.getImdbId()) == batchSize) {
+            return false;
+        }
+        mongoTemplate.remove(deletion);
+        return false;
+    }
+
+    /**
+     * Deletes the next batch of reviews carrying the imdbId of a deleted movie, returning how many were found.
+     */
+    private int deleteReviewsCarrying(String imdbId) {
+        if (mongoTemplate.exists(Query.query(Criteria.where("imdbId").is(imdbId)), Movie.class)) {
+            // The movie was created again, the reviews carrying its imdbId belong to the new one.
+            return 0;
+        }
+        Query batch = Query.query(Criteria.where("imdbId").is(imdbId)).limit(batchSize);
+        batch.fields().include("_id");
+        List<ObjectId> reviewIds = mongoTemplate.find(batch, Document.class, mongoTemplate.getCollectionName(Review.class))
+                .stream().map(review -> review.getObjectId("_id")).toList();
+        long deleted = deleteReviews(reviewIds);
+        if (deleted > 0) {
+            log.debug("Deleted {} reviews of deleted movie {}", deleted, imdbId);
+        }
+        return reviewIds.size();
+    }
+
+    private double checkedOutConnections() {
+        return meterRegistry.find("mongodb.driver.pool.checkedout").gauges().stream().mapToDouble(Gauge::value).sum();
+    }
+
+    /**
+     * Writes what is still queued before the application stops.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private record DeletedReview(ObjectId reviewId, String imdbId) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.md.MovieReview.MovieReview.service;
+
+/**
+ * How the reviews referenced by a movie are returned to the caller.
+ *
+ * <ul>
+ *     <li>FULL: the review documents are loaded, for a whole page of movies in a single query.</li>
+ *     <li>REFERENCES: only the review ids are returned, the "reviews" collection is not queried.</li>
+ *     <li>NONE: the "reviewIds" field is left out entirely.</li>
+ * </ul>
+ */
+public enum ReviewResolution {
+    FULL,
+    REFERENCES,
+    NONE;
+
+    /**
+     * This method resolves the mode from the value of the "reviews" request parameter.
+     *
+     * @param parameter is the value passed by the client: "full", "references" (or "refs") or "none".
+     * @return the matching resolution mode.
+     * @throws IllegalArgumentException if the parameter does not name a supported mode.
+     */
+    public static ReviewResolution fromParameter(String parameter) {
+        if ("refs".equalsIgnoreCase(parameter)) {
+            return REFERENCES;
+        }
+        for (ReviewResolution resolution : values()) {
+            if (resolution.name().equalsIgnoreCase(parameter)) {
+                return resolution;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported review resolution: " + parameter);
+    }
+}
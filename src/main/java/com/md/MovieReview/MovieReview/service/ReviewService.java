@@ -1,73 +1,342 @@
 package com.md.MovieReview.MovieReview.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.md.MovieReview.MovieReview.document.Movie;
 import com.md.MovieReview.MovieReview.document.Review;
-import com.md.MovieReview.MovieReview.repository.MovieRepository;
+import com.md.MovieReview.MovieReview.dto.BulkReviewResult;
 import com.md.MovieReview.MovieReview.repository.ReviewRepository;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.annotation.Timed;
+import org.bson.Document;
 import org.bson.types.ObjectId;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * A service class that handles operations related to movie reviews.
  * This class interacts with the database through the ReviewRepository and MongoTemplate objects,
  * providing methods for creating and managing movie reviews.
+ * Every public method is timed as "review.service", tagged with the method name.
  *
  * @author Maulik
  * @version 1.0
  * @since 2023-06-24
  */
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Timed("review.service")
 public class ReviewService {
 
+    /**
+     * Number of reviews inserted with one insert command during a bulk import.
+     */
+    private static final int BULK_CHUNK_SIZE = 1000;
+
+    private static final TypeReference<Map<String, String>> BULK_ITEM_TYPE = new TypeReference<>() {
+    };
+
     private final ReviewRepository reviewRepository;
     private final MongoTemplate mongoTemplate;
-    private final MovieRepository movieRepository;
+    private final MovieCache movieCache;
+    private final ObjectReader bulkItemReader;
+    private final ObjectMapper objectMapper;
+    private final ReviewUpdateCoalescer updateCoalescer;
+    private final long coalesceTimeoutNanos;
+    private final ReviewReferenceCleanup referenceCleanup;
+    private final ReviewBuckets reviewBuckets;
+    private final boolean pushReviewIds;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Initializes a new instance of the ReviewService class.
      *
      * @param reviewRepository The repository that will be used for managing review data.
      * @param mongoTemplate    The template that will be used for performing MongoDB operations.
-     * @param movieRepository
+     * @param movieCache       The imdbId cache of movies, invalidated whenever a movie's reviews change.
+     * @param objectMapper     The application's JSON mapper, used to read bulk imports and review edits.
+     * @param updateCoalescer  Batches review edits when "reviews.update.coalesce.enabled" is set, otherwise not available.
+     * @param coalesceTimeout  How long an edit waits for the coalesced write it ends up in, see "reviews.update.coalesce.timeout".
+     * @param referenceCleanup Removes the ids of deleted reviews from their movies in the background.
+     * @param reviewBuckets    The per-movie buckets every review is copied into.
+     * @param pushReviewIds    Whether new review ids are still appended to Movie.reviewIds, see "reviews.movie-review-ids.enabled".
+     * @param eventPublisher   Publishes a MovieChangedEvent for the movie of every written review.
      */
     @Autowired
-    public ReviewService(ReviewRepository reviewRepository, MongoTemplate mongoTemplate, MovieRepository movieRepository) {
+    public ReviewService(ReviewRepository reviewRepository, MongoTemplate mongoTemplate, MovieCache movieCache,
+                          ObjectMapper objectMapper, ObjectProvider<ReviewUpdateCoalescer> updateCoalescer,
+                         @Value("${reviews.update.coalesce.timeout:5s}") Duration coalesceTimeout,
+                         ReviewReferenceCleanup referenceCleanup, ReviewBuckets reviewBuckets,
+                         @Value("${reviews.movie-review-ids.enabled:true}") boolean pushReviewIds,
+                         ApplicationEventPublisher eventPublisher) {
         this.reviewRepository = reviewRepository;
         this.mongoTemplate = mongoTemplate;
-        this.movieRepository = movieRepository;
+        this.movieCache = movieCache;
+        this.bulkItemReader = objectMapper.readerFor(BULK_ITEM_TYPE);
+        this.objectMapper = objectMapper;
+        this.updateCoalescer = updateCoalescer.getIfAvailable();
+        this.coalesceTimeoutNanos = coalesceTimeout.toNanos();
+        this.referenceCleanup = referenceCleanup;
+        this.reviewBuckets = reviewBuckets;
+        this.pushReviewIds = pushReviewIds;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
      * Creates a new review and associates it with a movie.
-     * This method creates a new Review object with the provided review body, saves it to the database,
-     * and then associates the review with the movie that has the specified IMDB ID.
+     * This method first saves the review, and then associates its id with the movie that has the specified IMDB ID.
+     * If no movie has that IMDB ID, the review is deleted again, so no review is kept for an unknown movie. Saving it first
+     * means a movie never references a review that does not exist yet, which the ReviewConsistencySweeper would take for
+     * a deleted one.
+     * The review is appended to the movie's "reviewIds" unless that is disabled, and then to the movie's open review bucket.
+     * The same update also increments the movie's review count and stamps its last-reviewed time.
      *
      * @param reviewBody The text of the review.
      * @param imdbId     The IMDB ID of the movie that the review is for.
-     * @return The newly created Review object.
+     * @return An Optional containing the newly created Review object, empty if no movie has the IMDB ID.
      */
-    public Review createReview(String reviewBody, String imdbId) {
-        Review review = new Review(reviewBody);
-        reviewRepository.insert(review);
-        mongoTemplate.update(Movie.class)
-                .matching(Criteria.where("imdbId").is(imdbId))
-                .apply(new Update().push("reviewIds").value(review))
-                .first();
-        return review;
+    public Optional<Review> createReview(String reviewBody, String imdbId) {
+        Review review = reviewRepository.insert(new Review(new ObjectId(), reviewBody, imdbId));
+        Update update = new Update();
+        if (pushReviewIds) {
+            update.push("reviewIds").value(review);
+        }
+        long matched;
+        try {
+            matched = mongoTemplate.update(Movie.class)
+                    .matching(Criteria.where("imdbId").is(imdbId))
+                    .apply(update.inc("reviewCount", 1)
+                            .inc("version", 1)
+                            .currentDate("lastReviewedAt"))
+                    .first()
+                    .getMatchedCount();
+        } catch (RuntimeException e) {
+            // Undo the insert, otherwise a review would be stored that no movie counts.
+            reviewRepository.deleteById(review.getId());
+            throw e;
+        }
+        if (matched == 0) {
+            reviewRepository.deleteById(review.getId());
+            return Optional.empty();
+        }
+        reviewBuckets.add(review);
+        movieCache.invalidate(imdbId);
+        eventPublisher.publishEvent(new MovieChangedEvent(imdbId));
+        return Optional.of(review);
+    }
+
+    /**
+     * Creates many reviews at once from a JSON array or an NDJSON stream of {"reviewBody": ..., "imdbId": ...} items.
+     *
+     * <p>The items are read incrementally and processed in chunks of {@value #BULK_CHUNK_SIZE}. For every chunk the target movies
+     * are checked with one query, the reviews are inserted with one unordered insert command, copied into their buckets with
+     * one ordered bulk write, and the new ids are appended with one unordered bulk write holding a single $push/$each per movie. Items pointing at an unknown movie are rejected
+     * before anything is written for them. When appending to a movie fails, or the movie was deleted in the meantime, its
+     * reviews of the chunk are deleted again and removed from their buckets, and reported as failed.
+     * If the payload becomes malformed, the import stops at that item and everything before it stays imported.
+     *
+     * @param payload The request body, either a JSON array or newline-delimited JSON objects.
+     * @return The totals and the outcome of every item, in submission order.
+     * @throws IOException if reading the request body fails.
+     */
+    public BulkReviewResult createReviews(InputStream payload) throws IOException {
+        BulkReviewResult result = new BulkReviewResult();
+        List<PendingReview> chunk = new ArrayList<>(BULK_CHUNK_SIZE);
+        int index = 0;
+        try (MappingIterator<Map<String, String>> items = bulkItemReader.readValues(payload)) {
+            while (items.hasNextValue()) {
+                Map<String, String> item = items.nextValue();
+                String imdbId = item.get("imdbId");
+                String reviewBody = item.get("reviewBody");
+                if (imdbId == null || reviewBody == null) {
+                    result.failed(index++, imdbId, "Both reviewBody and imdbId are required");
+                    continue;
+                }
+                chunk.add(new PendingReview(index++, imdbId, new Review(new ObjectId(), reviewBody, imdbId)));
+                if (chunk.size() == BULK_CHUNK_SIZE) {
+                    insertChunk(chunk, result);
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            result.failed(index, null, "Malformed JSON, import stopped here: " + e.getOriginalMessage());
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(chunk, result);
+        }
+        return result;
+    }
+
+    private void insertChunk(List<PendingReview> chunk, BulkReviewResult result) {
+        String movieCollection = mongoTemplate.getCollectionName(Movie.class);
+
+        Set<String> imdbIds = new HashSet<>();
+        chunk.forEach(pending -> imdbIds.add(pending.imdbId()));
+        Query knownMovies = Query.query(Criteria.where("imdbId").in(imdbIds));
+        knownMovies.fields().include("imdbId");
+        Set<String> existing = new HashSet<>();
+        mongoTemplate.find(knownMovies, Document.class, movieCollection).forEach(movie -> existing.add(movie.getString("imdbId")));
+
+        List<PendingReview> accepted = new ArrayList<>(chunk.size());
+        for (PendingReview pending : chunk) {
+            if (existing.contains(pending.imdbId())) {
+                accepted.add(pending);
+            } else {
+                result.failed(pending.index(), pending.imdbId(), "Movie not found");
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        BulkOperations inserts = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Review.class);
+        inserts.insert(accepted.stream().map(PendingReview::review).toList());
+        Map<Integer, String> insertErrors = executeCollectingErrors(inserts);
+
+        Map<String, List<ObjectId>> idsPerMovie = new LinkedHashMap<>();
+        List<Review> inserted = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            if (!insertErrors.containsKey(i)) {
+                PendingReview pending = accepted.get(i);
+                idsPerMovie.computeIfAbsent(pending.imdbId(), key -> new ArrayList<>()).add(pending.review().getId());
+                inserted.add(pending.review());
+            }
+        }
+        reviewBuckets.addAll(inserted);
+
+        Map<String, String> linkErrors = idsPerMovie.isEmpty() ? Map.of() : link(idsPerMovie, movieCollection);
+        if (!linkErrors.isEmpty()) {
+            // The reviews of movies they could not be appended to are undone, so no review is stored that its movie does not count.
+            List<ObjectId> unlinked = new ArrayList<>();
+            linkErrors.keySet().forEach(imdbId -> unlinked.addAll(idsPerMovie.get(imdbId)));
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(unlinked)), Review.class);
+            reviewBuckets.removeReviews(unlinked);
+        }
+
+        for (int i = 0; i < accepted.size(); i++) {
+            PendingReview pending = accepted.get(i);
+            String error = insertErrors.containsKey(i) ? insertErrors.get(i) : linkErrors.get(pending.imdbId());
+            if (error == null) {
+                result.succeeded(pending.index(), pending.imdbId(), pending.review().getId().toHexString());
+            } else {
+                result.failed(pending.index(), pending.imdbId(), error);
+            }
+        }
+    }
+
+    /**
+     * Appends the new review ids to their movies with one unordered bulk write holding a single $push/$each per movie.
+     *
+     * @return the error per imdbId of the movies the reviews could not be appended to, including movies deleted since
+     *         they were checked.
+     */
+    private Map<String, String> link(Map<String, List<ObjectId>> idsPerMovie, String movieCollection) {
+        // The raw ids are pushed into the untyped collection, which is exactly how @DocumentReference stores them.
+        BulkOperations pushes = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, movieCollection);
+        List<String> pushOrder = new ArrayList<>(idsPerMovie.keySet());
+        for (String imdbId : pushOrder) {
+            Update update = new Update();
+            if (pushReviewIds) {
+                update.push("reviewIds").each(idsPerMovie.get(imdbId).toArray());
+            }
+            pushes.updateOne(Query.query(Criteria.where("imdbId").is(imdbId)),
+                    update.inc("reviewCount", idsPerMovie.get(imdbId).size())
+                            .inc("version", 1)
+                            .currentDate("lastReviewedAt"));
+        }
+        Map<String, String> linkErrors = new HashMap<>();
+        BulkWriteResult written;
+        try {
+            written = pushes.execute();
+        } catch (BulkOperationException e) {
+            e.getErrors().forEach(error -> linkErrors.put(pushOrder.get(error.getIndex()), error.getMessage()));
+            written = e.getResult();
+        }
+        if (written.getMatchedCount() < pushOrder.size() - linkErrors.size()) {
+            // Some movies were deleted since they were checked; the result does not tell which, so they are looked up.
+            Query stillExisting = Query.query(Criteria.where("imdbId").in(pushOrder));
+            stillExisting.fields().include("imdbId");
+            Set<String> existing = new HashSet<>();
+            mongoTemplate.find(stillExisting, Document.class, movieCollection).forEach(movie -> existing.add(movie.getString("imdbId")));
+            pushOrder.stream().filter(imdbId -> !existing.contains(imdbId)).forEach(imdbId -> linkErrors.putIfAbsent(imdbId, "Movie not found"));
+        }
+        pushOrder.forEach(movieCache::invalidate);
+        pushOrder.stream().filter(imdbId -> !linkErrors.containsKey(imdbId))
+                .forEach(imdbId -> eventPublisher.publishEvent(new MovieChangedEvent(imdbId)));
+        return linkErrors;
+    }
+
+    /**
+     * Executes an unordered bulk write and returns the errors by position of the failed operation.
+     */
+    private Map<Integer, String> executeCollectingErrors(BulkOperations operations) {
+        Map<Integer, String> errors = new HashMap<>();
+        try {
+            operations.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                errors.put(error.getIndex(), error.getMessage());
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * A review of a bulk import waiting to be written, along with its position in the payload.
+     */
+    private record PendingReview(int index, String imdbId, Review review) {
     }
 
+    /**
+     * Deletes a review by its ObjectId.
+     * The review is removed with a single findAndRemove and its movie is evicted from the imdbId cache right away, so the
+     * deleted review is no longer served. Pulling its id from the movies referencing it, together with their review count,
+     * is queued to the ReviewReferenceCleanup, which batches it with other deletes.
+     *
+     * @param objectId The ObjectId of the review to be deleted.
+     * @return An Optional containing the deleted review, if found.
+     */
     public Optional<Review> deleteReview(ObjectId objectId) {
-        Optional<Review> review = reviewRepository.findById(objectId);
-        review.ifPresent(value -> reviewRepository.deleteById(objectId));
+        Optional<Review> review = Optional.ofNullable(
+                mongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(objectId)), Review.class));
+        review.ifPresent(value -> {
+            String imdbId = imdbIdOf(value);
+            if (imdbId != null) {
+                movieCache.invalidate(imdbId);
+            }
+            referenceCleanup.reviewDeleted(objectId, imdbId);
+        });
         return review;
     }
 
@@ -75,35 +344,77 @@ public class ReviewService {
      * This method updates an existing review with new content provided as a JSON string.
      *
      * <p>It accepts an ObjectId and a JSON string representing the review content.
-     * The JSON string is parsed to extract the review message, which is then used to update the existing review.
-     * If a review with the specified ObjectId is not found, the method simply returns an empty Optional. If a review is found,
-     * it is updated with the new message and saved to the repository, then returned in an Optional.
+     * The JSON string is parsed to extract the review message, and the body is replaced with a single findAndModify
+     * returning the new document, so concurrent edits never overwrite each other's other fields.
+     * The copy in the review's bucket is updated, and the version of its movie is incremented, since its representation
+     * includes the review. The movie is then evicted from the imdbId cache, only its summary is refreshed in the background.
+     * When write coalescing is enabled, the edit is handed to the ReviewUpdateCoalescer instead and this method waits up to
+     * "reviews.update.coalesce.timeout" for the batch it ends up in.
      *
      * @param id          The ObjectId of the review to be updated.
      * @param reviewJson  The JSON string containing the new review message.
      *                    Expected format: {"reviewMessage":"[new message]"}.
      * @return            An Optional containing the updated Review object if found,
      *                    otherwise an empty Optional.
-     * @throws            JsonProcessingException if there is an issue parsing the reviewJson.
+     * @throws            IllegalArgumentException if the reviewJson is malformed or has no reviewMessage.
+     * @throws            IllegalStateException if the coalesced write did not complete in time.
      */
     public Optional<Review> updateReview(ObjectId id, String reviewJson) {
-        // Parse the JSON to get the review message
-        JsonNode reviewNode = null;
-        try {
-            reviewNode = new ObjectMapper().readTree(reviewJson);
-        } catch (JsonProcessingException e) {
-            e.printStackTrace();
+        String reviewMessage = parseReviewMessage(reviewJson);
+
+        if (updateCoalescer != null) {
+            try {
+                return updateCoalescer.submit(id, reviewMessage).get(coalesceTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+            } catch (TimeoutException e) {
+                throw new IllegalStateException("The coalesced update of review " + id + " did not complete in time", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the update of review " + id, e);
+            }
+        }
+
+        Review review = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(id)),
+                new Update().set("body", reviewMessage),
+                FindAndModifyOptions.options().returnNew(true),
+                Review.class);
+        String imdbId = review == null ? null : imdbIdOf(review);
+        if (imdbId != null) {
+            reviewBuckets.updateBodies(List.of(review));
+            // The movie embeds its reviews, so editing one changes the movie's representation as well.
+            mongoTemplate.updateFirst(Query.query(Criteria.where("imdbId").is(imdbId)),
+                    new Update().inc("version", 1), Movie.class);
+            movieCache.invalidate(imdbId);
+            eventPublisher.publishEvent(new MovieChangedEvent(imdbId));
         }
+        return Optional.ofNullable(review);
+    }
 
-        String reviewMessage = reviewNode.get("reviewMessage").asText();
+    /**
+     * Returns the imdbId of the review's movie, looked up through the movie referencing it if the review does not carry it.
+     */
+    private String imdbIdOf(Review review) {
+        if (review.getImdbId() != null) {
+            return review.getImdbId();
+        }
+        Document movie = mongoTemplate.findOne(MovieReviewResolver.referencing(List.of(review.getId())), Document.class,
+                mongoTemplate.getCollectionName(Movie.class));
+        return movie == null ? null : movie.getString("imdbId");
+    }
 
-        Optional<Review> existingReview = reviewRepository.findById(id);
-        if (existingReview.isPresent()) {
-            Review review = existingReview.get();
-            review.setBody(reviewMessage);
-            reviewRepository.save(review);
+    private String parseReviewMessage(String reviewJson) {
+        JsonNode reviewNode;
+        try {
+            reviewNode = objectMapper.readTree(reviewJson);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed review JSON: " + e.getOriginalMessage(), e);
+        }
+        JsonNode reviewMessage = reviewNode == null ? null : reviewNode.get("reviewMessage");
+        if (reviewMessage == null || !reviewMessage.isTextual()) {
+            throw new IllegalArgumentException("The review JSON must contain a reviewMessage string");
         }
-        return existingReview;
+        return reviewMessage.asText();
     }
 
 }
@@ -0,0 +1,191 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.Review;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class batches review edits arriving within a short window into one write, it is switched on with
+ * "reviews.update.coalesce.enabled=true".
+ *
+ * <p>The first edit of a window schedules a flush after "reviews.update.coalesce.window". Until then every edit of the
+ * same review replaces the pending body, so only the last one is written. The flush sends all pending edits as one
+ * unordered bulk write of $set operations, reads the updated reviews back with a single $in query, copies them into
+ * their buckets with one more bulk write, increments the version of their movies with one more update, and completes
+ * the futures of every edit of a review with its new state.
+ * Callers therefore wait about one window longer for their response, in exchange for far fewer writes when moderation
+ * tools send bursts of edits.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "reviews.update.coalesce.enabled", havingValue = "true")
+public class ReviewUpdateCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewUpdateCoalescer.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final MovieCache movieCache;
+    private final ReviewBuckets reviewBuckets;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long windowNanos;
+    private final ScheduledExecutorService flusher;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<ObjectId, PendingUpdate> pending = new LinkedHashMap<>();
+
+    @Autowired
+    public ReviewUpdateCoalescer(MongoTemplate mongoTemplate, MovieCache movieCache, ReviewBuckets reviewBuckets,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${reviews.update.coalesce.window:5ms}") Duration window) {
+        this.mongoTemplate = mongoTemplate;
+        this.movieCache = movieCache;
+        this.reviewBuckets = reviewBuckets;
+        this.eventPublisher = eventPublisher;
+        this.windowNanos = window.toNanos();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "review-update-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * This method queues an edit of a review body.
+     *
+     * @param id is the ObjectId of the review.
+     * @param body is the new body of the review.
+     * @return a future completed with the review as written by the flush, or an empty Optional if the review does not exist.
+     */
+    public CompletableFuture<Optional<Review>> submit(ObjectId id, String body) {
+        CompletableFuture<Optional<Review>> result = new CompletableFuture<>();
+        lock.lock();
+        try {
+            if (pending.isEmpty()) {
+                flusher.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+            }
+            PendingUpdate update = pending.computeIfAbsent(id, key -> new PendingUpdate());
+            update.body = body;
+            update.waiting.add(result);
+        } finally {
+            lock.unlock();
+        }
+        return result;
+    }
+
+    private void flush() {
+        Map<ObjectId, PendingUpdate> batch;
+        lock.lock();
+        try {
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        } finally {
+            lock.unlock();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            write(batch);
+        } catch (RuntimeException e) {
+            log.warn("Flushing {} coalesced review updates failed", batch.size(), e);
+            batch.values().forEach(update -> update.waiting.forEach(future -> future.completeExceptionally(e)));
+        }
+    }
+
+    private void write(Map<ObjectId, PendingUpdate> batch) {
+        List<ObjectId> ids = new ArrayList<>(batch.keySet());
+        BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Review.class);
+        for (ObjectId id : ids) {
+            updates.updateOne(Query.query(Criteria.where("_id").is(id)), new Update().set("body", batch.get(id).body));
+        }
+        Map<ObjectId, RuntimeException> failed = new HashMap<>();
+        try {
+            updates.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failed.put(ids.get(error.getIndex()), new IllegalStateException(error.getMessage()));
+            }
+        }
+
+        Map<ObjectId, Review> written = new HashMap<>();
+        Set<String> imdbIds = new HashSet<>();
+        List<ObjectId> untagged = new ArrayList<>();
+        for (Review review : mongoTemplate.find(Query.query(Criteria.where("_id").in(ids)), Review.class)) {
+            written.put(review.getId(), review);
+            if (review.getImdbId() != null) {
+                imdbIds.add(review.getImdbId());
+            } else {
+                untagged.add(review.getId());
+            }
+        }
+        if (!untagged.isEmpty()) {
+            mongoTemplate.find(MovieReviewResolver.referencing(untagged), Document.class, mongoTemplate.getCollectionName(Movie.class))
+                    .forEach(movie -> imdbIds.add(movie.getString("imdbId")));
+        }
+        reviewBuckets.updateBodies(written.values());
+        if (!imdbIds.isEmpty()) {
+            mongoTemplate.updateMulti(Query.query(Criteria.where("imdbId").in(imdbIds)), new Update().inc("version", 1), Movie.class);
+            imdbIds.forEach(movieCache::invalidate);
+            imdbIds.forEach(imdbId -> eventPublisher.publishEvent(new MovieChangedEvent(imdbId)));
+        }
+        batch.forEach((id, update) -> {
+            RuntimeException error = failed.get(id);
+            Optional<Review> review = Optional.ofNullable(written.get(id));
+            update.waiting.forEach(future -> {
+                if (error != null) {
+                    future.completeExceptionally(error);
+                } else {
+                    future.complete(review);
+                }
+            });
+        });
+    }
+
+    /**
+     * Writes the edits still pending and stops the flush thread.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        flush();
+    }
+
+    /**
+     * The last body submitted for a review during the current window, and everyone waiting for it.
+     */
+    private static final class PendingUpdate {
+        private String body;
+        private final List<CompletableFuture<Optional<Review>>> waiting = new ArrayList<>(1);
+    }
+}
@@ -0,0 +1,77 @@
+package com.md.MovieReview.MovieReview.reactive;
+
+import com.md.MovieReview.MovieReview.InMemoryMongo;
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.service.MovieService;
+import com.md.MovieReview.MovieReview.service.MovieSummaryPipeline;
+import com.md.MovieReview.MovieReview.service.ReviewConsistencySweeper;
+import com.md.MovieReview.MovieReview.service.ReviewService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ReactiveServingModeTest {
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        InMemoryMongo.register(registry);
+    }
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+    }
+
+    @Test
+    void leavesTheServletOnlyBeansOut() {
+        assertThat(context.getBeanNamesForType(MovieService.class)).isEmpty();
+        assertThat(context.getBeanNamesForType(ReviewService.class)).isEmpty();
+        assertThat(context.getBeanNamesForType(MovieSummaryPipeline.class)).isEmpty();
+        assertThat(context.getBeanNamesForType(ReviewConsistencySweeper.class)).isEmpty();
+    }
+
+    @Test
+    void addsAReviewToAnExistingMovie() {
+        Movie movie = new Movie();
+        movie.setImdbId("tt1");
+        mongoTemplate.insert(movie);
+
+        client.post().uri("/api/v1/reviews/addReview").bodyValue(Map.of("reviewBody", "great", "imdbId", "tt1"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody().jsonPath("$.body").isEqualTo("great");
+        client.get().uri("/api/v1/movies/tt1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.reviewCount").isEqualTo(1);
+    }
+
+    @Test
+    void rejectsAReviewForAnUnknownMovie() {
+        client.post().uri("/api/v1/reviews/addReview").bodyValue(Map.of("reviewBody", "great", "imdbId", "tt404"))
+                .exchange()
+                .expectStatus().isNotFound();
+
+        assertThat(mongoTemplate.getCollection("reviews").countDocuments()).isZero();
+    }
+}
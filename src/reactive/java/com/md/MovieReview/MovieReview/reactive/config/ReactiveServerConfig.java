@@ -0,0 +1,21 @@
+package com.md.MovieReview.MovieReview.reactive.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This configuration is active in reactive serving mode only.
+ * Tomcat stays on the classpath because the servlet stack is compiled into the same artifact, and Spring Boot would pick it
+ * as reactive server as well. Declaring the Netty factory makes the reactive mode run on a small, fixed set of event loop threads.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveServerConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,75 @@
+package com.md.MovieReview.MovieReview.reactive.controller;
+
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.reactive.service.ReactiveMovieService;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * This is the reactive counterpart of MovieController in reactive serving mode. It only serves a subset of /api/v1/movies:
+ * the list, the lookup by imdbId, addMovie and the delete. Paging, the NDJSON export, search, browsing, summaries and their
+ * rebuild, review pages and the cache statistics are servlet-only, and so are ETags, conditional GET and "fields=".
+ * The list endpoint returns a Flux, so it is written as a JSON array, or streamed line by line when the client
+ * asks for application/x-ndjson.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/v1/movies")
+public class ReactiveMovieController {
+
+    private final ReactiveMovieService reactiveMovieService;
+
+    @Autowired
+    public ReactiveMovieController(ReactiveMovieService reactiveMovieService) {
+        this.reactiveMovieService = reactiveMovieService;
+    }
+
+    /**
+     * Below method streams all the movies from the database.
+     *
+     * @return a Flux of all movies.
+     */
+    @GetMapping
+    public Flux<Movie> getAllMovies() {
+        return reactiveMovieService.getAllMovies();
+    }
+
+    /**
+     * Below method fetches a movie by its imdbId.
+     *
+     * @param imdbId is one of the unique identifiers in a database linked to specific movies
+     * @return a Mono emitting the movie, empty if not found.
+     */
+    @GetMapping("/{imdbId}")
+    public Mono<Movie> getMovieByImdbId(@PathVariable String imdbId) {
+        return reactiveMovieService.singleMovieByImdbId(imdbId);
+    }
+
+    /**
+     * This method deletes a movie from the database by its ObjectId.
+     *
+     * @param id is the ObjectId of the movie to be deleted.
+     * @return a Mono emitting the deleted movie, empty if not found.
+     */
+    @DeleteMapping("/{id}")
+    public Mono<Movie> deleteMovieByImdbId(@PathVariable ObjectId id) {
+        return reactiveMovieService.deleteMovie(id);
+    }
+
+    /**
+     * This method adds a new movie to the database.
+     *
+     * @param movie is the Movie object to be added.
+     * @return a Mono emitting the newly added movie, with a 201 status.
+     */
+    @PostMapping("/addMovie")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Movie> addMovie(@RequestBody Movie movie) {
+        return reactiveMovieService.addMovie(movie);
+    }
+}
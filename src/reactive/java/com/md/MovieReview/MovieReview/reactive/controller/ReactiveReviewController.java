@@ -0,0 +1,66 @@
+package com.md.MovieReview.MovieReview.reactive.controller;
+
+import com.md.MovieReview.MovieReview.document.Review;
+import com.md.MovieReview.MovieReview.reactive.service.ReactiveReviewService;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * This is the reactive counterpart of ReviewController in reactive serving mode. It serves addReview, updateReview and the
+ * delete of /api/v1/reviews; the bulk import is servlet-only, and writes are not passed through the write admission limit.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/v1/reviews")
+public class ReactiveReviewController {
+
+    private final ReactiveReviewService reactiveReviewService;
+
+    @Autowired
+    public ReactiveReviewController(ReactiveReviewService reactiveReviewService) {
+        this.reactiveReviewService = reactiveReviewService;
+    }
+
+    /**
+     Creates a new review based on the provided request payload.
+     @param payload The request payload containing the review body and IMDb ID.
+     @return A Mono emitting the created review with a 201 status, or a 404 response if no movie has the IMDb ID.
+     */
+    @PostMapping("/addReview")
+    public Mono<ResponseEntity<Review>> createReview(@RequestBody Map<String, String> payload) {
+        return reactiveReviewService.createReview(payload.get("reviewBody"), payload.get("imdbId"))
+                .map(review -> new ResponseEntity<>(review, HttpStatus.CREATED))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     Deletes a review by its unique identifier (object ID).
+     @param id The unique identifier of the review to be deleted.
+     @return A Mono emitting the deleted review, empty if not found.
+     */
+    @DeleteMapping("/{id}")
+    public Mono<Review> deleteReviewByObjectId(@PathVariable ObjectId id) {
+        return reactiveReviewService.deleteReview(id);
+    }
+
+    /**
+     Updates an existing review by its unique identifier (object ID) with the provided review message.
+     @param id The unique identifier of the review to be updated.
+     @param reviewMessage The updated review message.
+     @return The updated review body, 404 if the review does not exist, or 400 if the JSON is invalid.
+     */
+    @PutMapping("/updateReview/{id}")
+    public Mono<ResponseEntity<String>> updateReviewByObjectId(@PathVariable("id") ObjectId id, @RequestBody String reviewMessage) {
+        return reactiveReviewService.updateReview(id, reviewMessage)
+                .map(review -> ResponseEntity.ok(review.getBody()))
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+}
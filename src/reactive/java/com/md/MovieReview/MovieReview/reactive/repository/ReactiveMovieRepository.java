@@ -0,0 +1,15 @@
+package com.md.MovieReview.MovieReview.reactive.repository;
+
+import com.md.MovieReview.MovieReview.document.Movie;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * This interface is the non-blocking counterpart of MovieRepository, used when the application runs in reactive serving mode.
+ * It is only used for writes: the reactive mapping layer cannot resolve the @DocumentReference on "reviewIds",
+ * so movies are read as raw documents by ReactiveMovieService and their reviews are resolved in batches.
+ */
+@Repository
+public interface ReactiveMovieRepository extends ReactiveMongoRepository<Movie, ObjectId> {
+}
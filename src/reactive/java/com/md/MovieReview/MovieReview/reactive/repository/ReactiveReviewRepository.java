@@ -0,0 +1,14 @@
+package com.md.MovieReview.MovieReview.reactive.repository;
+
+import com.md.MovieReview.MovieReview.document.Review;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * This interface is the non-blocking counterpart of ReviewRepository, used when the application runs in reactive serving mode.
+ * Every method returns a Mono or Flux instead of blocking the calling thread on the MongoDB driver.
+ */
+@Repository
+public interface ReactiveReviewRepository extends ReactiveMongoRepository<Review, ObjectId> {
+}
@@ -0,0 +1,157 @@
+package com.md.MovieReview.MovieReview.reactive.service;
+
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.MovieDeletion;
+import com.md.MovieReview.MovieReview.document.Review;
+import com.md.MovieReview.MovieReview.reactive.repository.ReactiveMovieRepository;
+import com.md.MovieReview.MovieReview.service.MovieChangedEvent;
+import com.md.MovieReview.MovieReview.service.MovieReviewResolver;
+import com.md.MovieReview.MovieReview.service.MovieSortKey;
+import com.md.MovieReview.MovieReview.service.MovieVersions;
+import com.md.MovieReview.MovieReview.service.ReleaseDates;
+import com.md.MovieReview.MovieReview.service.ReviewReferenceCleanup;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This service class is the non-blocking counterpart of MovieService, used in reactive serving mode.
+ *
+ * <p>The reactive mapping layer cannot resolve the @DocumentReference on "reviewIds", so movies are read as raw documents,
+ * the review ids are detached and the reviews of a whole batch of movies are fetched with one $in query,
+ * the same way MovieReviewResolver does it on the blocking stack.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveMovieService {
+
+    /**
+     * Number of movies whose reviews are resolved together while streaming the catalog.
+     */
+    private static final int RESOLVE_BATCH_SIZE = 500;
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ReactiveMovieRepository reactiveMovieRepository;
+    private final ReviewReferenceCleanup reviewReferenceCleanup;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public ReactiveMovieService(ReactiveMongoTemplate reactiveMongoTemplate, ReactiveMovieRepository reactiveMovieRepository,
+                                ReviewReferenceCleanup reviewReferenceCleanup, ApplicationEventPublisher eventPublisher) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.reactiveMovieRepository = reactiveMovieRepository;
+        this.reviewReferenceCleanup = reviewReferenceCleanup;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * This method streams all movies from the database, resolving their reviews batch by batch.
+     * Demand from the subscriber is propagated to the MongoDB cursor, so slow clients slow down the reads instead of filling memory.
+     *
+     * @return a Flux of all movies, ordered by id.
+     */
+    public Flux<Movie> getAllMovies() {
+        Query query = new Query().with(MovieSortKey.ID.toSort());
+        return reactiveMongoTemplate.find(query, Document.class, movieCollection())
+                .buffer(RESOLVE_BATCH_SIZE)
+                .concatMap(this::resolve);
+    }
+
+    /**
+     * This method retrieves a movie from the database by its imdbId.
+     *
+     * @param imdbId is the imdbId of the movie to be fetched.
+     * @return a Mono emitting the movie, empty if not found.
+     */
+    public Mono<Movie> singleMovieByImdbId(String imdbId) {
+        return reactiveMongoTemplate.findOne(Query.query(Criteria.where("imdbId").is(imdbId)), Document.class, movieCollection())
+                .flatMapMany(raw -> resolve(List.of(raw)))
+                .next();
+    }
+
+    /**
+     * This method deletes a movie from the database by its ObjectId, in a single findAndRemove round trip.
+     * The deletion is then recorded as a MovieDeletion, from which the ReviewReferenceCleanup deletes its reviews in the background.
+     *
+     * @param objectId is the ObjectId of the movie to be deleted.
+     * @return a Mono emitting the deleted movie, empty if not found.
+     */
+    public Mono<Movie> deleteMovie(ObjectId objectId) {
+        return reactiveMongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(objectId)), Document.class, movieCollection())
+                .flatMapMany(raw -> resolve(List.of(raw)))
+                .next()
+                .flatMap(movie -> reactiveMongoTemplate.save(MovieDeletion.of(objectId, movie.getImdbId(),
+                                movie.getReviewIds().stream().map(Review::getId).toList()))
+                        .doOnSuccess(deletion -> {
+                            reviewReferenceCleanup.movieDeletionRecorded();
+                            eventPublisher.publishEvent(new MovieChangedEvent(movie.getImdbId()));
+                        })
+                        .thenReturn(movie));
+    }
+
+    /**
+     * This method adds a new movie to the database.
+     * The review count and the typed release date are initialized unless they were provided, and the version is set from
+     * MovieVersions, never taken from the client.
+     *
+     * @param movie is the Movie object to be added.
+     * @return a Mono emitting the newly added movie.
+     */
+    public Mono<Movie> addMovie(Movie movie) {
+        if (movie.getReleasedAt() == null) {
+            movie.setReleasedAt(ReleaseDates.parse(movie.getReleaseDate()));
+        }
+        if (movie.getReviewCount() == null) {
+            movie.setReviewCount(movie.getReviewIds() == null ? 0 : movie.getReviewIds().size());
+        }
+        movie.setVersion(MovieVersions.initial());
+        return reactiveMovieRepository.save(movie)
+                .doOnNext(saved -> eventPublisher.publishEvent(new MovieChangedEvent(saved.getImdbId())));
+    }
+
+    private Flux<Movie> resolve(List<Document> rawMovies) {
+        List<Movie> movies = new ArrayList<>(rawMovies.size());
+        List<List<ObjectId>> reviewIdsPerMovie = new ArrayList<>(rawMovies.size());
+        Set<ObjectId> allReviewIds = new LinkedHashSet<>();
+        for (Document raw : rawMovies) {
+            List<ObjectId> reviewIds = MovieReviewResolver.detachReviewIds(raw);
+            movies.add(reactiveMongoTemplate.getConverter().read(Movie.class, raw));
+            reviewIdsPerMovie.add(reviewIds);
+            allReviewIds.addAll(reviewIds);
+        }
+        Mono<Map<ObjectId, Review>> reviews = allReviewIds.isEmpty()
+                ? Mono.just(Map.of())
+                : reactiveMongoTemplate.find(Query.query(Criteria.where("_id").in(allReviewIds)), Review.class).collectMap(Review::getId);
+        return reviews.flatMapIterable(reviewsById -> {
+            for (int i = 0; i < movies.size(); i++) {
+                List<Review> movieReviews = new ArrayList<>();
+                for (ObjectId reviewId : reviewIdsPerMovie.get(i)) {
+                    Review review = reviewsById.get(reviewId);
+                    if (review != null) {
+                        movieReviews.add(review);
+                    }
+                }
+                movies.get(i).setReviewIds(movieReviews);
+            }
+            return movies;
+        });
+    }
+
+    private String movieCollection() {
+        return reactiveMongoTemplate.getCollectionName(Movie.class);
+    }
+}
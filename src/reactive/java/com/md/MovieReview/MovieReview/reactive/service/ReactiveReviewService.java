@@ -0,0 +1,164 @@
+package com.md.MovieReview.MovieReview.reactive.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.Review;
+import com.md.MovieReview.MovieReview.document.ReviewBucket;
+import com.md.MovieReview.MovieReview.reactive.repository.ReactiveReviewRepository;
+import com.md.MovieReview.MovieReview.service.MovieChangedEvent;
+import com.md.MovieReview.MovieReview.service.MovieReviewResolver;
+import com.md.MovieReview.MovieReview.service.ReviewBuckets;
+import com.md.MovieReview.MovieReview.service.ReviewReferenceCleanup;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.List;
+
+/**
+ * This service class is the non-blocking counterpart of ReviewService, used in reactive serving mode.
+ * The review ids are written as in ReviewService, and the review buckets with the queries and updates of ReviewBuckets.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveReviewService {
+
+    private final ReactiveReviewRepository reactiveReviewRepository;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final ReviewReferenceCleanup reviewReferenceCleanup;
+    private final ReviewBuckets reviewBuckets;
+    private final boolean pushReviewIds;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public ReactiveReviewService(ReactiveReviewRepository reactiveReviewRepository, ReactiveMongoTemplate reactiveMongoTemplate,
+                                 ObjectMapper objectMapper, ReviewReferenceCleanup reviewReferenceCleanup,
+                                 ReviewBuckets reviewBuckets,
+                                 @Value("${reviews.movie-review-ids.enabled:true}") boolean pushReviewIds,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.reactiveReviewRepository = reactiveReviewRepository;
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.objectMapper = objectMapper;
+        this.reviewReferenceCleanup = reviewReferenceCleanup;
+        this.reviewBuckets = reviewBuckets;
+        this.pushReviewIds = pushReviewIds;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Creates a new review and associates it with the movie that has the specified IMDB ID,
+     * incrementing the movie's review count in the same update, and appends it to the movie's open review bucket.
+     * As in ReviewService, the review is saved first and deleted again if no movie has the IMDB ID.
+     *
+     * @param reviewBody The text of the review.
+     * @param imdbId     The IMDB ID of the movie that the review is for.
+     * @return A Mono emitting the newly created Review object, empty if no movie has the IMDB ID.
+     */
+    public Mono<Review> createReview(String reviewBody, String imdbId) {
+        Review review = new Review(new ObjectId(), reviewBody, imdbId);
+        Update update = new Update();
+        if (pushReviewIds) {
+            update.push("reviewIds").value(review.getId());
+        }
+        return reactiveReviewRepository.insert(review)
+                .flatMap(inserted -> reactiveMongoTemplate.updateFirst(Query.query(Criteria.where("imdbId").is(imdbId)),
+                                update.inc("reviewCount", 1)
+                                        .inc("version", 1)
+                                        .currentDate("lastReviewedAt"),
+                                movieCollection())
+                        .onErrorResume(e -> reactiveReviewRepository.delete(inserted).then(Mono.error(e)))
+                        .flatMap(result -> result.getMatchedCount() > 0 ? Mono.just(inserted)
+                                : reactiveReviewRepository.delete(inserted).then(Mono.<Review>empty())))
+                .flatMap(inserted -> appendToBucket(inserted).thenReturn(inserted))
+                .doOnNext(inserted -> eventPublisher.publishEvent(new MovieChangedEvent(imdbId)));
+    }
+
+    /**
+     * Appends the review to the open bucket of its movie. As in ReviewBuckets.add, an append failing because the open
+     * bucket is full closes that bucket and is retried.
+     */
+    private Mono<Void> appendToBucket(Review review) {
+        return Mono.defer(() -> reactiveMongoTemplate.upsert(reviewBuckets.appendTarget(review.getImdbId()),
+                        reviewBuckets.append(review), ReviewBucket.class))
+                .onErrorResume(DuplicateKeyException.class, e -> reactiveMongoTemplate.updateFirst(
+                                reviewBuckets.fullOpenBucket(review.getImdbId()), reviewBuckets.close(), ReviewBucket.class)
+                        .then(Mono.error(e)))
+                .retryWhen(Retry.max(ReviewBuckets.MAX_APPEND_ATTEMPTS - 1).filter(DuplicateKeyException.class::isInstance)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .then();
+    }
+
+    /**
+     * Deletes a review by its ObjectId with a single findAndRemove.
+     * Pulling it from the referencing movies is queued to the ReviewReferenceCleanup, which batches it with other deletes.
+     *
+     * @param objectId The ObjectId of the review to be deleted.
+     * @return A Mono emitting the deleted review, empty if not found.
+     */
+    public Mono<Review> deleteReview(ObjectId objectId) {
+        return reactiveMongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(objectId)), Review.class)
+                .flatMap(review -> imdbIdOf(review)
+                        .doOnNext(imdbId -> reviewReferenceCleanup.reviewDeleted(objectId, imdbId))
+                        .switchIfEmpty(Mono.fromRunnable(() -> reviewReferenceCleanup.reviewDeleted(objectId, null)))
+                        .thenReturn(review));
+    }
+
+    /**
+     * Updates the body of an existing review with a single findAndModify, returning the new document.
+     * The copy in the review's bucket is updated and the version of the review's movie is incremented afterwards,
+     * since its representation includes the review.
+     *
+     * @param id         The ObjectId of the review to be updated.
+     * @param reviewJson The JSON string containing the new review message, {"reviewMessage":"[new message]"}.
+     * @return A Mono emitting the updated review, empty if not found, or an IllegalArgumentException if the JSON is invalid.
+     */
+    public Mono<Review> updateReview(ObjectId id, String reviewJson) {
+        JsonNode reviewMessage;
+        try {
+            reviewMessage = objectMapper.readTree(reviewJson).get("reviewMessage");
+        } catch (JsonProcessingException e) {
+            return Mono.error(new IllegalArgumentException("Malformed review JSON", e));
+        }
+        if (reviewMessage == null || !reviewMessage.isTextual()) {
+            return Mono.error(new IllegalArgumentException("reviewMessage is required"));
+        }
+        return reactiveMongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(id)),
+                        new Update().set("body", reviewMessage.asText()),
+                        FindAndModifyOptions.options().returnNew(true),
+                        Review.class)
+                .flatMap(review -> imdbIdOf(review)
+                        .flatMap(imdbId -> reactiveMongoTemplate.updateFirst(reviewBuckets.holding(review), reviewBuckets.body(review),
+                                        ReviewBucket.class)
+                                .then(reactiveMongoTemplate.updateFirst(Query.query(Criteria.where("imdbId").is(imdbId)),
+                                        new Update().inc("version", 1), movieCollection()))
+                                .doOnSuccess(result -> eventPublisher.publishEvent(new MovieChangedEvent(imdbId))))
+                        .thenReturn(review));
+    }
+
+    private Mono<String> imdbIdOf(Review review) {
+        if (review.getImdbId() != null) {
+            return Mono.just(review.getImdbId());
+        }
+        return reactiveMongoTemplate.findOne(MovieReviewResolver.referencing(List.of(review.getId())), Document.class, movieCollection())
+                .mapNotNull(movie -> movie.getString("imdbId"));
+    }
+
+    private String movieCollection() {
+        return reactiveMongoTemplate.getCollectionName(Movie.class);
+    }
+}
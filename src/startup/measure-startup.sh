@@ -0,0 +1,118 @@
+#!/usr/bin/env bash
+#
+# Compares the startup time and memory of the build variants of the application:
+#
+#   default    mvn package, with spring-dotenv, started with java -jar
+#   production mvn -Dproduction package, started with java -jar
+#   aot        the production jar started with -Dspring.aot.enabled=true
+#   aot-cds    the production jar unpacked, started with AOT and an AppCDS archive recorded by a training run
+#   native     the GraalVM native image, only if NATIVE=1 (needs a GraalVM JDK and several minutes to build)
+#
+# Every variant is started RUNS times (5 by default). The startup time is the "process running for" time Spring Boot
+# logs once the application context is ready, and the memory is the resident set size read right after that.
+# The medians are written to target/startup/results.md.
+# No results are committed yet; once measured, copy results.md next to this script.
+#
+# The application connects to a real MongoDB, configured through the usual environment variables
+# (MONGO_USER, MONGO_PASSWORD, MONGO_CLUSTER and MONGO_DATABASE, or SPRING_DATA_MONGODB_URI and SPRING_DATA_MONGODB_DATABASE).
+# Run it from the project root: src/startup/measure-startup.sh
+#
+set -euo pipefail
+
+RUNS="${RUNS:-5}"
+NATIVE="${NATIVE:-0}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-120}"
+MAIN_CLASS=com.md.MovieReview.MovieReview.MovieReviewApplication
+OUT=target/startup
+JAR_NAME=MovieReview-0.0.1-SNAPSHOT.jar
+APP_ARGS=(--server.port=0 --reviews.cleanup.sweep.interval-ms=600000)
+
+mkdir -p "$OUT"
+
+echo "Building the default jar"
+./mvnw -q -B -DskipTests package
+cp "target/$JAR_NAME" "$OUT/default.jar"
+
+echo "Building the production jar"
+./mvnw -q -B -Dproduction -DskipTests package
+cp "target/$JAR_NAME" "$OUT/production.jar"
+
+# AppCDS only archives classes loaded from plain jars and directories, not from the jars nested in the Spring Boot jar.
+rm -rf "$OUT/app"
+mkdir -p "$OUT/app"
+(cd "$OUT/app" && jar -xf ../production.jar)
+CLASSPATH="$OUT/app/BOOT-INF/classes"
+for lib in $(ls "$OUT/app/BOOT-INF/lib" | sort); do
+    CLASSPATH="$CLASSPATH:$OUT/app/BOOT-INF/lib/$lib"
+done
+
+if [[ "$NATIVE" == "1" ]]; then
+    echo "Building the native image"
+    ./mvnw -q -B -Dproduction -Pnative -DskipTests native:compile
+fi
+
+# Starts a command, waits until the application is ready, prints "<startup seconds> <rss kB>" and stops it.
+measure() {
+    local log="$OUT/run.log"
+    "$@" "${APP_ARGS[@]}" > "$log" 2>&1 &
+    local pid=$!
+    local waited=0
+    until grep -q "Started MovieReviewApplication" "$log"; do
+        if ! kill -0 "$pid" 2>/dev/null || (( waited >= TIMEOUT_SECONDS * 10 )); then
+            kill "$pid" 2>/dev/null || true
+            echo "The application did not start, see $log" >&2
+            exit 1
+        fi
+        sleep 0.1
+        waited=$((waited + 1))
+    done
+    local rss
+    rss=$(ps -o rss= -p "$pid" | tr -d ' ')
+    kill -TERM "$pid"
+    wait "$pid" || true
+    local seconds
+    seconds=$(grep -o "process running for [0-9.]*" "$log" | grep -o "[0-9.]*$")
+    echo "$seconds $rss"
+}
+
+# Runs a variant RUNS times and appends the medians to the results.
+compare() {
+    local name=$1
+    shift
+    local times=() memory=()
+    for ((run = 1; run <= RUNS; run++)); do
+        read -r seconds rss < <(measure "$@") || true
+        if [[ -z "${seconds:-}" ]]; then
+            echo "Measuring $name failed, see $OUT/run.log" >&2
+            exit 1
+        fi
+        times+=("$seconds")
+        memory+=("$rss")
+        echo "  $name run $run: ${seconds}s, $((rss / 1024)) MB"
+    done
+    local median_time median_rss
+    median_time=$(printf '%s\n' "${times[@]}" | sort -n | sed -n "$(((RUNS + 1) / 2))p")
+    median_rss=$(printf '%s\n' "${memory[@]}" | sort -n | sed -n "$(((RUNS + 1) / 2))p")
+    echo "| $name | $median_time | $((median_rss / 1024)) |" >> "$OUT/results.md"
+}
+
+echo "Recording the AppCDS archive"
+rm -f "$OUT/app.jsa"
+measure java -XX:ArchiveClassesAtExit="$OUT/app.jsa" -Dspring.aot.enabled=true -cp "$CLASSPATH" "$MAIN_CLASS" > /dev/null
+
+{
+    echo "Startup of $RUNS runs per variant on $(java -version 2>&1 | head -1), medians."
+    echo
+    echo "| Variant | Startup (s) | RSS (MB) |"
+    echo "|---|---|---|"
+} > "$OUT/results.md"
+
+compare default java -jar "$OUT/default.jar"
+compare production java -jar "$OUT/production.jar"
+compare aot java -Dspring.aot.enabled=true -jar "$OUT/production.jar"
+compare aot-cds java -XX:SharedArchiveFile="$OUT/app.jsa" -Dspring.aot.enabled=true -cp "$CLASSPATH" "$MAIN_CLASS"
+if [[ "$NATIVE" == "1" ]]; then
+    compare native target/MovieReview
+fi
+
+cat "$OUT/results.md"
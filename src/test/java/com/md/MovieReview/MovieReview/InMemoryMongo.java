@@ -0,0 +1,32 @@
+package com.md.MovieReview.MovieReview;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.net.InetSocketAddress;
+
+/**
+ * In-memory MongoDB stand-in shared by the tests, started once per test JVM.
+ * Index creation is switched off because the stand-in does not support text indexes.
+ */
+public final class InMemoryMongo {
+
+    private static final String URI = start();
+
+    private InMemoryMongo() {
+    }
+
+    public static void register(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> URI);
+        registry.add("spring.data.mongodb.database", () -> "movie-review-test");
+        registry.add("spring.data.mongodb.auto-index-creation", () -> "false");
+    }
+
+    private static String start() {
+        MongoServer server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::shutdownNow));
+        return "mongodb://" + address.getHostString() + ":" + address.getPort();
+    }
+}
@@ -2,10 +2,17 @@ package com.md.MovieReview.MovieReview;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 
 @SpringBootTest
 class MovieReviewApplicationTests {
 
+	@DynamicPropertySource
+	static void mongo(DynamicPropertyRegistry registry) {
+		InMemoryMongo.register(registry);
+	}
+
 	@Test
 	void contextLoads() {
 	}
@@ -0,0 +1,26 @@
+package com.md.MovieReview.MovieReview.config;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.connection.ConnectionPoolSettings;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MongoClientConfigTest {
+
+    @Test
+    void sizesThePoolAndBoundsTheWait() {
+        MongoClientSettings.Builder builder = MongoClientSettings.builder();
+
+        new MongoClientConfig().connectionPoolCustomizer(50, 10, 2, Duration.ofMillis(500)).customize(builder);
+
+        ConnectionPoolSettings pool = builder.build().getConnectionPoolSettings();
+        assertThat(pool.getMaxSize()).isEqualTo(50);
+        assertThat(pool.getMinSize()).isEqualTo(10);
+        assertThat(pool.getMaxConnecting()).isEqualTo(2);
+        assertThat(pool.getMaxWaitTime(TimeUnit.MILLISECONDS)).isEqualTo(500);
+    }
+}
@@ -0,0 +1,92 @@
+package com.md.MovieReview.MovieReview.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonNull;
+import org.bson.BsonString;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MongoCommandDocumentsListenerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MongoCommandDocumentsListener listener = new MongoCommandDocumentsListener(meterRegistry);
+
+    @Test
+    void countsTheFirstBatchOfAFind() {
+        listener.commandStarted(started(1, "find", new BsonDocument("find", new BsonString("movies"))));
+        listener.commandSucceeded(succeeded(1, "find", cursor("firstBatch", 3)));
+
+        DistributionSummary summary = summary("find", "movies");
+        assertThat(summary.count()).isEqualTo(1);
+        assertThat(summary.totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void takesTheCollectionOfAGetMoreFromItsCommand() {
+        listener.commandStarted(started(2, "getMore", new BsonDocument("getMore", new BsonInt64(42))
+                .append("collection", new BsonString("reviews"))));
+        listener.commandSucceeded(succeeded(2, "getMore", cursor("nextBatch", 5)));
+
+        assertThat(summary("getMore", "reviews").totalAmount()).isEqualTo(5);
+    }
+
+    @Test
+    void countsModifiedAndMatchedDocuments() {
+        listener.commandStarted(started(3, "update", new BsonDocument("update", new BsonString("movies"))));
+        listener.commandSucceeded(succeeded(3, "update", new BsonDocument("n", new BsonInt32(4))));
+        listener.commandStarted(started(4, "findAndModify", new BsonDocument("findAndModify", new BsonString("reviews"))));
+        listener.commandSucceeded(succeeded(4, "findAndModify", new BsonDocument("value", BsonNull.VALUE)));
+
+        assertThat(summary("update", "movies").totalAmount()).isEqualTo(4);
+        assertThat(summary("findAndModify", "reviews").totalAmount()).isZero();
+    }
+
+    @Test
+    void forgetsTheCollectionOfAFailedCommand() {
+        listener.commandStarted(started(5, "find", new BsonDocument("find", new BsonString("movies"))));
+        CommandFailedEvent failed = mock(CommandFailedEvent.class);
+        when(failed.getRequestId()).thenReturn(5);
+        listener.commandFailed(failed);
+        listener.commandSucceeded(succeeded(5, "find", cursor("firstBatch", 1)));
+
+        assertThat(summary("find", "unknown").count()).isEqualTo(1);
+    }
+
+    private DistributionSummary summary(String command, String collection) {
+        return meterRegistry.get("mongodb.driver.commands.documents").tag("command", command).tag("collection", collection).summary();
+    }
+
+    private static CommandStartedEvent started(int requestId, String commandName, BsonDocument command) {
+        CommandStartedEvent event = mock(CommandStartedEvent.class);
+        when(event.getRequestId()).thenReturn(requestId);
+        when(event.getCommandName()).thenReturn(commandName);
+        when(event.getCommand()).thenReturn(command);
+        return event;
+    }
+
+    private static CommandSucceededEvent succeeded(int requestId, String commandName, BsonDocument response) {
+        CommandSucceededEvent event = mock(CommandSucceededEvent.class);
+        when(event.getRequestId()).thenReturn(requestId);
+        when(event.getCommandName()).thenReturn(commandName);
+        when(event.getResponse()).thenReturn(response);
+        return event;
+    }
+
+    private static BsonDocument cursor(String batch, int size) {
+        BsonArray documents = new BsonArray(Collections.nCopies(size, new BsonDocument()));
+        return new BsonDocument("cursor", new BsonDocument(batch, documents));
+    }
+}
@@ -0,0 +1,56 @@
+package com.md.MovieReview.MovieReview.config;
+
+import com.mongodb.event.CommandSucceededEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MongoLatencyTrackerTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final MongoLatencyTracker tracker = new MongoLatencyTracker(Duration.ofSeconds(1));
+
+    @Test
+    void tracksWriteCommandsOnly() {
+        tracker.commandSucceeded(succeeded("find", 900));
+        assertThat(tracker.averageNanos()).isZero();
+
+        tracker.commandSucceeded(succeeded("update", 100));
+        tracker.commandSucceeded(succeeded("findAndModify", 100));
+        assertThat(tracker.averageNanos()).isEqualTo(100);
+    }
+
+    @Test
+    void weighsSamplesOfTheSameMomentEqually() {
+        tracker.record(100, 0);
+        tracker.record(300, 0);
+
+        assertThat(tracker.averageNanos()).isEqualTo(200);
+    }
+
+    @Test
+    void halvesTheWeightOfOlderSamplesEveryHalfLife() {
+        tracker.record(100, 0);
+        tracker.record(400, SECOND);
+
+        // The first sample weighs 1/2 against 1: (50 + 400) / 1.5.
+        assertThat(tracker.averageNanos()).isEqualTo(300);
+
+        tracker.record(400, 11 * SECOND);
+        assertThat(tracker.averageNanos()).isBetween(399L, 400L);
+    }
+
+    private static CommandSucceededEvent succeeded(String commandName, long elapsedNanos) {
+        CommandSucceededEvent event = mock(CommandSucceededEvent.class);
+        when(event.getCommandName()).thenReturn(commandName);
+        when(event.getElapsedTime(any(TimeUnit.class))).thenReturn(elapsedNanos);
+        return event;
+    }
+}
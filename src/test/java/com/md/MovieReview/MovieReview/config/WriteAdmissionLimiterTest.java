@@ -0,0 +1,146 @@
+package com.md.MovieReview.MovieReview.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteAdmissionLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MongoLatencyTracker latencyTracker = new MongoLatencyTracker(Duration.ofSeconds(1));
+    private WriteAdmissionLimiter limiter;
+
+    @AfterEach
+    void tearDown() {
+        limiter.shutdown();
+    }
+
+    @Test
+    void rejectsWritesOnceTheQueueIsFull() throws Exception {
+        limiter = limiter(2, 1, 4, 0, Duration.ofMillis(100));
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        assertThat(rejected("queue-full")).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsAQueuedWriteAfterTheMaxWait() throws Exception {
+        limiter = limiter(1, 1, 4, 1, Duration.ofMillis(50));
+        limiter.tryAcquire();
+
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        assertThat(rejected("timeout")).isEqualTo(1);
+    }
+
+    @Test
+    void handsAReleasedSlotToTheWaitingWrite() throws Exception {
+        limiter = limiter(1, 1, 4, 1, Duration.ofSeconds(5));
+        limiter.tryAcquire();
+
+        CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.tryAcquire();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (meterRegistry.get("writes.admission.queued").gauge().value() < 1) {
+            Thread.sleep(5);
+        }
+        limiter.release();
+
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(gauge("writes.admission.in-flight")).isEqualTo(1);
+    }
+
+    @Test
+    void queuesNewWritesBehindTheWaitingOnes() throws Exception {
+        limiter = limiter(1, 1, 4, 2, Duration.ofMillis(200));
+        limiter.tryAcquire();
+
+        CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.tryAcquire();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (meterRegistry.get("writes.admission.queued").gauge().value() < 1) {
+            Thread.sleep(5);
+        }
+        limiter.release();
+
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void cutsTheLimitWhileWritesAreSlow() {
+        limiter = limiter(8, 2, 8, 0, Duration.ofMillis(100));
+        latencyTracker.record(TimeUnit.MILLISECONDS.toNanos(200), 0);
+
+        limiter.adjust();
+        assertThat(gauge("writes.admission.limit")).isEqualTo(6);
+        limiter.adjust();
+        limiter.adjust();
+        limiter.adjust();
+        limiter.adjust();
+        assertThat(gauge("writes.admission.limit")).isEqualTo(2);
+    }
+
+    @Test
+    void growsTheLimitOnlyWhenWritesHadToWait() throws Exception {
+        limiter = limiter(1, 1, 2, 0, Duration.ofMillis(100));
+        latencyTracker.record(TimeUnit.MILLISECONDS.toNanos(10), 0);
+
+        limiter.adjust();
+        assertThat(gauge("writes.admission.limit")).isEqualTo(1);
+
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        limiter.adjust();
+        assertThat(gauge("writes.admission.limit")).isEqualTo(2);
+
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        limiter.adjust();
+        assertThat(gauge("writes.admission.limit")).isEqualTo(2);
+    }
+
+    @Test
+    void adjustsOnItsOwnThread() throws Exception {
+        limiter = new WriteAdmissionLimiter(latencyTracker, meterRegistry, 8, 2, 8, 0, Duration.ofMillis(100),
+                Duration.ofMillis(50), Duration.ofMillis(10));
+        latencyTracker.record(TimeUnit.MILLISECONDS.toNanos(200), 0);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (gauge("writes.admission.limit") > 2) {
+            assertThat(System.nanoTime()).as("limit cut in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private WriteAdmissionLimiter limiter(int initialLimit, int minLimit, int maxLimit, int queueCapacity, Duration maxWait) {
+        // The adjust interval is long enough for the tests to call adjust() themselves.
+        return new WriteAdmissionLimiter(latencyTracker, meterRegistry, initialLimit, minLimit, maxLimit, queueCapacity, maxWait,
+                Duration.ofMillis(50), Duration.ofHours(1));
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("writes.admission.rejected").tag("reason", reason).counter().count();
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+}
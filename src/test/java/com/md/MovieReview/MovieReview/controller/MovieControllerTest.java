@@ -0,0 +1,118 @@
+package com.md.MovieReview.MovieReview.controller;
+
+import com.md.MovieReview.MovieReview.config.JsonConfig;
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.service.MovieFields;
+import com.md.MovieReview.MovieReview.service.MovieService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(MovieController.class)
+@Import(JsonConfig.class)
+class MovieControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private MovieService movieService;
+
+    @Test
+    void returnsTheVersionAsETag() throws Exception {
+        when(movieService.singleMovieByImdbId(eq("tt1"), any(MovieFields.class))).thenReturn(Optional.of(movie("tt1", 3L)));
+
+        mockMvc.perform(get("/api/v1/movies/tt1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v3\""))
+                .andExpect(header().string("Cache-Control", "no-cache, public"))
+                .andExpect(jsonPath("$.imdbId").value("tt1"));
+    }
+
+    @Test
+    void answersNotModifiedFromTheVersionAlone() throws Exception {
+        when(movieService.currentVersion("tt1")).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(get("/api/v1/movies/tt1").header("If-None-Match", "W/\"v3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"v3\""))
+                .andExpect(content().string(""));
+
+        verify(movieService, never()).singleMovieByImdbId(any(), any(MovieFields.class));
+    }
+
+    @Test
+    void sendsTheMovieAgainOnceItChanged() throws Exception {
+        when(movieService.currentVersion("tt1")).thenReturn(Optional.of(4L));
+        when(movieService.singleMovieByImdbId(eq("tt1"), any(MovieFields.class))).thenReturn(Optional.of(movie("tt1", 4L)));
+
+        mockMvc.perform(get("/api/v1/movies/tt1").header("If-None-Match", "\"v3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v4\""));
+    }
+
+    @Test
+    void tagsEachFieldsetSeparately() throws Exception {
+        when(movieService.currentVersion("tt1")).thenReturn(Optional.of(3L));
+        when(movieService.singleMovieByImdbId(eq("tt1"), any(MovieFields.class))).thenReturn(Optional.of(movie("tt1", 3L)));
+
+        mockMvc.perform(get("/api/v1/movies/tt1").param("fields", "imdbId,title").header("If-None-Match", "\"v3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("\"v3-")));
+    }
+
+    @Test
+    void keepsNullFieldsInTheDefaultJson() throws Exception {
+        when(movieService.getAllMovies(MovieFields.ALL)).thenReturn(List.of(movie("tt1", 3L)));
+
+        mockMvc.perform(get("/api/v1/movies"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Title"))
+                .andExpect(jsonPath("$[0].poster").hasJsonPath())
+                .andExpect(jsonPath("$[0].reviewIds").hasJsonPath());
+    }
+
+    @Test
+    void writesOnlyTheRequestedFields() throws Exception {
+        when(movieService.getAllMovies(any(MovieFields.class))).thenReturn(List.of(movie("tt1", 3L)));
+
+        mockMvc.perform(get("/api/v1/movies").param("fields", "title,poster"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Title"))
+                .andExpect(jsonPath("$[0].poster").hasJsonPath())
+                .andExpect(jsonPath("$[0].imdbId").doesNotHaveJsonPath())
+                .andExpect(jsonPath("$[0].reviewIds").doesNotHaveJsonPath());
+    }
+
+    @Test
+    void rejectsAnUnknownField() throws Exception {
+        mockMvc.perform(get("/api/v1/movies").param("fields", "title,budget"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static Movie movie(String imdbId, long version) {
+        Movie movie = new Movie();
+        movie.setImdbId(imdbId);
+        movie.setTitle("Title");
+        movie.setVersion(version);
+        return movie;
+    }
+}
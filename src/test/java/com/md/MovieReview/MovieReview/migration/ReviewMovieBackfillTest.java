@@ -0,0 +1,69 @@
+package com.md.MovieReview.MovieReview.migration;
+
+import com.md.MovieReview.MovieReview.InMemoryMongo;
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.Review;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+class ReviewMovieBackfillTest {
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        InMemoryMongo.register(registry);
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+    }
+
+    @Test
+    void tagsReviewsWithTheirMovieAndMarksOrphans() {
+        Review first = mongoTemplate.insert(new Review("first"));
+        Review second = mongoTemplate.insert(new Review("second"));
+        Review orphan = mongoTemplate.insert(new Review("orphan"));
+        Movie movie = new Movie();
+        movie.setImdbId("tt1");
+        movie.setReviewIds(new ArrayList<>(List.of(first, second)));
+        mongoTemplate.insert(movie);
+
+        new ReviewMovieBackfill(mongoTemplate).run(new DefaultApplicationArguments());
+
+        assertThat(rawReview(first.getId()).getString("imdbId")).isEqualTo("tt1");
+        assertThat(rawReview(second.getId()).getString("imdbId")).isEqualTo("tt1");
+        assertThat(rawReview(orphan.getId())).containsEntry("imdbId", null);
+    }
+
+    @Test
+    void keepsTheMovieOfTaggedReviews() {
+        Review tagged = mongoTemplate.insert(new Review("tagged", "tt2"));
+
+        new ReviewMovieBackfill(mongoTemplate).run(new DefaultApplicationArguments());
+
+        assertThat(rawReview(tagged.getId()).getString("imdbId")).isEqualTo("tt2");
+    }
+
+    private Document rawReview(ObjectId id) {
+        return mongoTemplate.findOne(Query.query(Criteria.where("_id").is(id)), Document.class, "reviews");
+    }
+}
@@ -0,0 +1,150 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.md.MovieReview.MovieReview.document.Movie;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MovieCacheTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentMissesLoadOnce() throws Exception {
+        MovieCache cache = cache(Duration.ofSeconds(5));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Optional<Movie>> first = executor.submit(() -> cache.get("tt1", imdbId -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return Optional.of(movie(imdbId));
+        }));
+        loading.await(5, TimeUnit.SECONDS);
+        Future<Optional<Movie>> second = executor.submit(() -> cache.get("tt1", imdbId -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        }));
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).map(Movie::getImdbId).contains("tt1");
+        assertThat(second.get(5, TimeUnit.SECONDS)).map(Movie::getImdbId).contains("tt1");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void cachesUnknownMoviesAsEmpty() {
+        MovieCache cache = cache(Duration.ofSeconds(5));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("tt404", imdbId -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        Optional<Movie> cached = cache.get("tt404", imdbId -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        assertThat(cached).isEmpty();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void errorInTheLoaderFailsTheWaitersAndIsNotCached() throws Exception {
+        MovieCache cache = cache(Duration.ofSeconds(5));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Optional<Movie>> owner = executor.submit(() -> cache.get("tt1", imdbId -> {
+            loading.countDown();
+            await(release);
+            throw new StackOverflowError("driver");
+        }));
+        loading.await(5, TimeUnit.SECONDS);
+        Future<Optional<Movie>> waiter = executor.submit(() -> cache.get("tt1", imdbId -> Optional.empty()));
+        release.countDown();
+
+        assertThatThrownBy(() -> owner.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(StackOverflowError.class);
+        assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(StackOverflowError.class);
+        assertThat(cache.get("tt1", imdbId -> Optional.of(movie(imdbId)))).isPresent();
+    }
+
+    @Test
+    void waitersGiveUpAfterTheLoadTimeout() throws Exception {
+        MovieCache cache = cache(Duration.ofMillis(50));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        executor.submit(() -> cache.get("tt1", imdbId -> {
+            loading.countDown();
+            await(release);
+            return Optional.of(movie(imdbId));
+        }));
+        loading.await(5, TimeUnit.SECONDS);
+        try {
+            assertThatThrownBy(() -> cache.get("tt1", imdbId -> Optional.empty())).isInstanceOf(IllegalStateException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void invalidationDuringALoadDropsItsResult() throws Exception {
+        MovieCache cache = cache(Duration.ofSeconds(5));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Optional<Movie>> stale = executor.submit(() -> cache.get("tt1", imdbId -> {
+            loading.countDown();
+            await(release);
+            return Optional.empty();
+        }));
+        loading.await(5, TimeUnit.SECONDS);
+        cache.invalidate("tt1");
+        release.countDown();
+        stale.get(5, TimeUnit.SECONDS);
+
+        assertThat(cache.get("tt1", imdbId -> Optional.of(movie(imdbId)))).isPresent();
+    }
+
+    private static MovieCache cache(Duration loadTimeout) {
+        return new MovieCache(100, Duration.ofMinutes(5), loadTimeout, new SimpleMeterRegistry());
+    }
+
+    private static Movie movie(String imdbId) {
+        Movie movie = new Movie();
+        movie.setImdbId(imdbId);
+        return movie;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.md.MovieReview.MovieReview.document.Movie;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class MovieCursorTest {
+
+    private static final ObjectId ID = new ObjectId("64a0f0c2e4b0a1b2c3d4e5f6");
+
+    @Test
+    void idCursorContinuesAfterTheId() {
+        String token = MovieCursor.after(movie("2019-05-24"), MovieSortKey.ID).encode();
+
+        Document criteria = MovieCursor.decode(token, MovieSortKey.ID).toCriteria().getCriteriaObject();
+
+        assertThat(criteria).isEqualTo(new Document("_id", new Document("$gt", ID)));
+    }
+
+    @Test
+    void releaseDateCursorContinuesWithTiesAndLaterDates() {
+        String token = MovieCursor.after(movie("2019-05-24"), MovieSortKey.RELEASE_DATE).encode();
+
+        Document criteria = MovieCursor.decode(token, MovieSortKey.RELEASE_DATE).toCriteria().getCriteriaObject();
+
+        assertThat(criteria).isEqualTo(new Document("$or", List.of(
+                new Document("releaseDate", new Document("$gt", "2019-05-24")),
+                new Document("$and", List.of(
+                        new Document("releaseDate", "2019-05-24"),
+                        new Document("_id", new Document("$gt", ID)))))));
+    }
+
+    @Test
+    void missingReleaseDateContinuesWithRemainingNullsAndEveryDate() {
+        String token = MovieCursor.after(movie(null), MovieSortKey.RELEASE_DATE).encode();
+
+        Document criteria = MovieCursor.decode(token, MovieSortKey.RELEASE_DATE).toCriteria().getCriteriaObject();
+
+        assertThat(criteria).isEqualTo(new Document("$or", List.of(
+                new Document("$and", List.of(
+                        new Document("releaseDate", null),
+                        new Document("_id", new Document("$gt", ID)))),
+                new Document("releaseDate", new Document("$ne", null)))));
+    }
+
+    @Test
+    void releaseDateMayContainTheSeparator() {
+        String token = MovieCursor.after(movie("2019|05"), MovieSortKey.RELEASE_DATE).encode();
+
+        Document criteria = MovieCursor.decode(token, MovieSortKey.RELEASE_DATE).toCriteria().getCriteriaObject();
+
+        assertThat(criteria.toJson()).contains("\"2019|05\"");
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = MovieCursor.after(movie("2019-05-24"), MovieSortKey.RELEASE_DATE).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsCursorOfAnotherSortKey() {
+        String token = MovieCursor.after(movie("2019-05-24"), MovieSortKey.RELEASE_DATE).encode();
+
+        assertThatIllegalArgumentException().isThrownBy(() -> MovieCursor.decode(token, MovieSortKey.ID));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThatIllegalArgumentException().isThrownBy(() -> MovieCursor.decode("not base64!", MovieSortKey.ID));
+        assertThatIllegalArgumentException().isThrownBy(() -> MovieCursor.decode(encode("id"), MovieSortKey.ID));
+        assertThatIllegalArgumentException().isThrownBy(() -> MovieCursor.decode(encode("id|nothex"), MovieSortKey.ID));
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> MovieCursor.decode(encode("releaseDate|" + ID.toHexString() + "|2019"), MovieSortKey.RELEASE_DATE));
+    }
+
+    @Test
+    void sortKeyIsResolvedFromTheParameter() {
+        assertThat(MovieSortKey.fromParameter("releasedate")).isEqualTo(MovieSortKey.RELEASE_DATE);
+        assertThat(MovieSortKey.ID.toSort().toString()).isEqualTo("_id: ASC");
+        assertThat(MovieSortKey.RELEASE_DATE.toSort().toString()).isEqualTo("releaseDate: ASC,_id: ASC");
+        assertThatIllegalArgumentException().isThrownBy(() -> MovieSortKey.fromParameter("title"));
+    }
+
+    private static Movie movie(String releaseDate) {
+        Movie movie = new Movie();
+        movie.setId(ID);
+        movie.setReleaseDate(releaseDate);
+        return movie;
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,107 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.md.MovieReview.MovieReview.InMemoryMongo;
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.Review;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataMongoTest
+class MovieReviewResolverTest {
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        InMemoryMongo.register(registry);
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private MongoTemplate spiedTemplate;
+    private MovieReviewResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+        spiedTemplate = spy(mongoTemplate);
+        resolver = new MovieReviewResolver(spiedTemplate);
+    }
+
+    @Test
+    void resolvesTheReviewsOfAllMoviesWithOneQuery() {
+        ObjectId first = insertReview("first");
+        ObjectId second = insertReview("second");
+        ObjectId third = insertReview("third");
+
+        List<Movie> movies = resolver.resolve(List.of(rawMovie("tt1", second, first), rawMovie("tt2", third)), ReviewResolution.FULL);
+
+        assertThat(movies.get(0).getReviewIds()).extracting(Review::getBody).containsExactly("second", "first");
+        assertThat(movies.get(1).getReviewIds()).extracting(Review::getBody).containsExactly("third");
+        verify(spiedTemplate, times(1)).find(any(Query.class), eq(Review.class));
+    }
+
+    @Test
+    void dropsDanglingReferences() {
+        ObjectId kept = insertReview("kept");
+
+        List<Movie> movies = resolver.resolve(List.of(rawMovie("tt1", new ObjectId(), kept)), ReviewResolution.FULL);
+
+        assertThat(movies.get(0).getReviewIds()).extracting(Review::getId).containsExactly(kept);
+    }
+
+    @Test
+    void returnsOnlyTheIdsForReferences() {
+        ObjectId reviewId = new ObjectId();
+
+        List<Movie> movies = resolver.resolve(List.of(rawMovie("tt1", reviewId)), ReviewResolution.REFERENCES);
+
+        assertThat(movies.get(0).getReviewIds()).extracting(Review::getId).containsExactly(reviewId);
+        assertThat(movies.get(0).getReviewIds()).extracting(Review::getBody).containsOnlyNulls();
+        verify(spiedTemplate, never()).find(any(Query.class), eq(Review.class));
+    }
+
+    @Test
+    void leavesReviewsOutForNone() {
+        List<Movie> movies = resolver.resolve(List.of(rawMovie("tt1", new ObjectId())), ReviewResolution.NONE);
+
+        assertThat(movies.get(0).getImdbId()).isEqualTo("tt1");
+        assertThat(movies.get(0).getReviewIds()).isNull();
+        verify(spiedTemplate, never()).find(any(Query.class), eq(Review.class));
+    }
+
+    @Test
+    void detachesOnlyObjectIds() {
+        Document raw = new Document("imdbId", "tt1").append("reviewIds", List.of(new ObjectId(), "not an id"));
+
+        assertThat(MovieReviewResolver.detachReviewIds(raw)).hasSize(1);
+        assertThat(raw).doesNotContainKey("reviewIds");
+        assertThat(MovieReviewResolver.detachReviewIds(new Document())).isEmpty();
+    }
+
+    private ObjectId insertReview(String body) {
+        return mongoTemplate.insert(new Review(body)).getId();
+    }
+
+    private static Document rawMovie(String imdbId, ObjectId... reviewIds) {
+        return new Document("_id", new ObjectId()).append("imdbId", imdbId).append("reviewIds", new ArrayList<>(List.of(reviewIds)));
+    }
+}
@@ -0,0 +1,90 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.md.MovieReview.MovieReview.InMemoryMongo;
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.dto.FacetCount;
+import com.md.MovieReview.MovieReview.dto.MovieBrowseResult;
+import com.md.MovieReview.MovieReview.repository.MovieRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+
+@DataMongoTest
+class MovieServiceBrowseTest {
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        InMemoryMongo.register(registry);
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private MovieService movieService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+        movieService = new MovieService(mock(MovieRepository.class), mongoTemplate, new ObjectMapper(),
+                new MovieReviewResolver(mongoTemplate), mock(MovieCache.class), mock(ReviewReferenceCleanup.class),
+                mock(ReviewBuckets.class), mock(MovieSummaryPipeline.class), mock(ApplicationEventPublisher.class));
+        insert("tt1", "2019-05-01", "Drama");
+        insert("tt2", "2021-03-10", "Drama", "Action");
+        insert("tt3", "2021-11-30", "Action");
+        insert("tt4", "2023-01-15", "Drama");
+    }
+
+    @Test
+    void filtersByGenreNewestFirstWithFacets() {
+        MovieBrowseResult result = movieService.browseMovies("Drama", null, null, true, 0, 10, ReviewResolution.NONE);
+
+        assertThat(result.getMovies()).extracting(Movie::getImdbId).containsExactly("tt4", "tt2", "tt1");
+        assertThat(result.getTotal()).isEqualTo(3);
+        assertThat(result.getGenres()).extracting(FacetCount::getValue, FacetCount::getCount)
+                .contains(tuple("Drama", 3L), tuple("Action", 1L));
+        assertThat(result.getYears()).extracting(FacetCount::getValue)
+                .containsExactlyInAnyOrder("2019", "2021", "2023");
+    }
+
+    @Test
+    void filtersByAnInclusiveReleaseRangeAndPages() {
+        MovieBrowseResult first = movieService.browseMovies(null, LocalDate.of(2021, 1, 1), LocalDate.of(2021, 11, 30),
+                false, 0, 1, ReviewResolution.NONE);
+        MovieBrowseResult second = movieService.browseMovies(null, LocalDate.of(2021, 1, 1), LocalDate.of(2021, 11, 30),
+                false, 1, 1, ReviewResolution.NONE);
+
+        assertThat(first.getTotal()).isEqualTo(2);
+        assertThat(first.getMovies()).extracting(Movie::getImdbId).containsExactly("tt2");
+        assertThat(second.getMovies()).extracting(Movie::getImdbId).containsExactly("tt3");
+    }
+
+    @Test
+    void returnsNothingWhenNothingMatches() {
+        MovieBrowseResult result = movieService.browseMovies("Western", null, null, true, 0, 10, ReviewResolution.NONE);
+
+        assertThat(result.getMovies()).isEmpty();
+        assertThat(result.getTotal()).isZero();
+    }
+
+    private void insert(String imdbId, String releaseDate, String... genres) {
+        Movie movie = new Movie();
+        movie.setImdbId(imdbId);
+        movie.setReleaseDate(releaseDate);
+        movie.setReleasedAt(ReleaseDates.parse(releaseDate));
+        movie.setGenres(List.of(genres));
+        mongoTemplate.insert(movie);
+    }
+}
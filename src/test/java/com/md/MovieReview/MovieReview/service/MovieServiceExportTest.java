@@ -0,0 +1,112 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.md.MovieReview.MovieReview.InMemoryMongo;
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.Review;
+import com.md.MovieReview.MovieReview.repository.MovieRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@DataMongoTest
+class MovieServiceExportTest {
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        InMemoryMongo.register(registry);
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private MovieService movieService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+        movieService = new MovieService(mock(MovieRepository.class), mongoTemplate, objectMapper,
+                new MovieReviewResolver(mongoTemplate), mock(MovieCache.class), mock(ReviewReferenceCleanup.class),
+                mock(ReviewBuckets.class), mock(MovieSummaryPipeline.class), mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void writesOneLinePerMovieWithTheirReviews() throws Exception {
+        insertMovie("tt1", "first", "second");
+        insertMovie("tt2");
+        insertMovie("tt3", "third");
+
+        List<JsonNode> lines = export(true);
+
+        assertThat(lines).extracting(line -> line.get("imdbId").asText()).containsExactly("tt1", "tt2", "tt3");
+        assertThat(lines.get(0).get("reviewIds")).extracting(review -> review.get("body").asText()).containsExactly("first", "second");
+        assertThat(lines.get(1).get("reviewIds")).isEmpty();
+    }
+
+    @Test
+    void leavesReviewsOutUnlessRequested() throws Exception {
+        insertMovie("tt1", "first");
+
+        List<JsonNode> lines = export(false);
+
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0).hasNonNull("reviewIds")).isFalse();
+    }
+
+    @Test
+    void keepsTheResponseStreamOpen() throws Exception {
+        insertMovie("tt1");
+        ClosingTrackingStream out = new ClosingTrackingStream();
+
+        movieService.exportMovies(false, out);
+
+        assertThat(out.closed).isFalse();
+        assertThat(out.toString(StandardCharsets.UTF_8)).endsWith("\n");
+    }
+
+    private List<JsonNode> export(boolean includeReviews) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        movieService.exportMovies(includeReviews, out);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private void insertMovie(String imdbId, String... reviewBodies) {
+        List<Review> reviews = new ArrayList<>();
+        for (String body : reviewBodies) {
+            reviews.add(mongoTemplate.insert(new Review(body, imdbId)));
+        }
+        Movie movie = new Movie();
+        movie.setImdbId(imdbId);
+        movie.setReviewIds(reviews);
+        mongoTemplate.insert(movie);
+    }
+
+    private static class ClosingTrackingStream extends ByteArrayOutputStream {
+        private boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
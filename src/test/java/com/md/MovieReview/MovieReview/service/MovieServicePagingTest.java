@@ -0,0 +1,114 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.md.MovieReview.MovieReview.InMemoryMongo;
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.dto.MoviePage;
+import com.md.MovieReview.MovieReview.repository.MovieRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.Mockito.mock;
+
+@DataMongoTest
+class MovieServicePagingTest {
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        InMemoryMongo.register(registry);
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private MovieService movieService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+        movieService = new MovieService(mock(MovieRepository.class), mongoTemplate, new ObjectMapper(),
+                new MovieReviewResolver(mongoTemplate), mock(MovieCache.class), mock(ReviewReferenceCleanup.class),
+                mock(ReviewBuckets.class), mock(MovieSummaryPipeline.class), mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void pagesThroughEveryMovieByIdExactlyOnce() {
+        List<String> inserted = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            inserted.add(insert("tt" + i, "2020-01-0" + (5 - i)).getImdbId());
+        }
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MoviePage page = movieService.getMoviePage(2, cursor, MovieSortKey.ID, ReviewResolution.NONE, MovieFields.ALL);
+            page.getMovies().forEach(movie -> seen.add(movie.getImdbId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(seen).isEqualTo(inserted);
+        assertThat(pages).isEqualTo(3);
+    }
+
+    @Test
+    void pagesByReleaseDateWithMissingDatesFirstAndTiesById() {
+        insert("tt-late", "2021-01-01");
+        insert("tt-none-1", null);
+        insert("tt-tie-1", "2020-06-01");
+        insert("tt-none-2", null);
+        insert("tt-tie-2", "2020-06-01");
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            MoviePage page = movieService.getMoviePage(1, cursor, MovieSortKey.RELEASE_DATE, ReviewResolution.NONE, MovieFields.ALL);
+            page.getMovies().forEach(movie -> seen.add(movie.getImdbId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).containsExactly("tt-none-1", "tt-none-2", "tt-tie-1", "tt-tie-2", "tt-late");
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        insert("tt1", "2020-01-01");
+
+        MoviePage page = movieService.getMoviePage(10, null, MovieSortKey.ID, ReviewResolution.NONE, MovieFields.ALL);
+
+        assertThat(page.getMovies()).hasSize(1);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void rejectsCursorIssuedForAnotherSortKey() {
+        insert("tt1", "2020-01-01");
+        insert("tt2", "2020-01-02");
+        String cursor = movieService.getMoviePage(1, null, MovieSortKey.ID, ReviewResolution.NONE, MovieFields.ALL).getNextCursor();
+
+        assertThatIllegalArgumentException().isThrownBy(() ->
+                movieService.getMoviePage(1, cursor, MovieSortKey.RELEASE_DATE, ReviewResolution.NONE, MovieFields.ALL));
+    }
+
+    private Movie insert(String imdbId, String releaseDate) {
+        Movie movie = new Movie();
+        movie.setId(new ObjectId());
+        movie.setImdbId(imdbId);
+        movie.setTitle("Title of " + imdbId);
+        movie.setReleaseDate(releaseDate);
+        return mongoTemplate.insert(movie);
+    }
+}
@@ -0,0 +1,104 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.md.MovieReview.MovieReview.InMemoryMongo;
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.repository.MovieRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+
+/**
+ * The in-memory stand-in has no text search, so the two text index queries are stubbed with their matches and scores;
+ * the ranking, paging and loading of the movies run against it.
+ */
+@DataMongoTest
+class MovieServiceSearchTest {
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        InMemoryMongo.register(registry);
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private MongoTemplate spiedTemplate;
+    private MovieService movieService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+        spiedTemplate = spy(mongoTemplate);
+        movieService = new MovieService(mock(MovieRepository.class), spiedTemplate, new ObjectMapper(),
+                new MovieReviewResolver(spiedTemplate), mock(MovieCache.class), mock(ReviewReferenceCleanup.class),
+                mock(ReviewBuckets.class), mock(MovieSummaryPipeline.class), mock(ApplicationEventPublisher.class));
+        for (String imdbId : List.of("tt1", "tt2", "tt3")) {
+            Movie movie = new Movie();
+            movie.setImdbId(imdbId);
+            mongoTemplate.insert(movie);
+        }
+    }
+
+    @Test
+    void ranksByTheWeightedSumOfTitleAndReviewScores() {
+        titleMatches(match("tt1", 1.0), match("tt2", 1.2));
+        reviewMatches(match("tt1", 1.0), match("tt3", 2.0), match("tt3", 0.2));
+
+        List<Movie> movies = movieService.searchMovies("space", 0, 10, ReviewResolution.NONE, MovieFields.ALL);
+
+        assertThat(movies).extracting(Movie::getImdbId).containsExactly("tt1", "tt2", "tt3");
+    }
+
+    @Test
+    void pagesThroughTheRanking() {
+        titleMatches(match("tt1", 3.0), match("tt2", 2.0), match("tt3", 1.0));
+        reviewMatches();
+
+        assertThat(movieService.searchMovies("space", 1, 2, ReviewResolution.NONE, MovieFields.ALL))
+                .extracting(Movie::getImdbId).containsExactly("tt3");
+        assertThat(movieService.searchMovies("space", 2, 2, ReviewResolution.NONE, MovieFields.ALL)).isEmpty();
+    }
+
+    @Test
+    void ignoresReviewMatchesWithoutAMovie() {
+        titleMatches();
+        reviewMatches(new Document("score", 5.0), match("tt2", 1.0));
+
+        assertThat(movieService.searchMovies("space", 0, 10, ReviewResolution.NONE, MovieFields.ALL))
+                .extracting(Movie::getImdbId).containsExactly("tt2");
+    }
+
+    private void titleMatches(Document... matches) {
+        stubTextMatches("movies", matches);
+    }
+
+    private void reviewMatches(Document... matches) {
+        stubTextMatches("reviews", matches);
+    }
+
+    private void stubTextMatches(String collection, Document... matches) {
+        doReturn(List.of(matches)).when(spiedTemplate)
+                .find(argThat((Query query) -> query != null && query.getQueryObject().containsKey("$text")), eq(Document.class), eq(collection));
+    }
+
+    private static Document match(String imdbId, double score) {
+        return new Document("imdbId", imdbId).append("score", score);
+    }
+}
@@ -0,0 +1,70 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.md.MovieReview.MovieReview.InMemoryMongo;
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.repository.MovieRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@DataMongoTest
+class MovieServiceTopMoviesTest {
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        InMemoryMongo.register(registry);
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private MovieService movieService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+        movieService = new MovieService(mock(MovieRepository.class), mongoTemplate, new ObjectMapper(),
+                new MovieReviewResolver(mongoTemplate), mock(MovieCache.class), mock(ReviewReferenceCleanup.class),
+                mock(ReviewBuckets.class), mock(MovieSummaryPipeline.class), mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void returnsTheMostReviewedMoviesFirst() {
+        insert("tt-few", 2);
+        insert("tt-most", 30);
+        insert("tt-none", 0);
+        insert("tt-many", 12);
+
+        List<Movie> top = movieService.getTopMovies(3, ReviewResolution.NONE, MovieFields.ALL);
+
+        assertThat(top).extracting(Movie::getImdbId).containsExactly("tt-most", "tt-many", "tt-few");
+    }
+
+    @Test
+    void clampsTheLimit() {
+        for (int i = 0; i < MovieService.MAX_PAGE_SIZE + 5; i++) {
+            insert("tt" + i, i);
+        }
+
+        assertThat(movieService.getTopMovies(1000, ReviewResolution.NONE, MovieFields.ALL)).hasSize(MovieService.MAX_PAGE_SIZE);
+        assertThat(movieService.getTopMovies(0, ReviewResolution.NONE, MovieFields.ALL)).hasSize(1);
+    }
+
+    private void insert(String imdbId, int reviewCount) {
+        Movie movie = new Movie();
+        movie.setImdbId(imdbId);
+        movie.setReviewCount(reviewCount);
+        mongoTemplate.insert(movie);
+    }
+}
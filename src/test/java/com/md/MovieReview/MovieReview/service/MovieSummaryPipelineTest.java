@@ -0,0 +1,157 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.md.MovieReview.MovieReview.InMemoryMongo;
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.MovieSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+@DataMongoTest
+class MovieSummaryPipelineTest {
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        InMemoryMongo.register(registry);
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private MovieSummaryPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+        pipeline = new MovieSummaryPipeline(mongoTemplate, new SimpleMeterRegistry(), 1, 10, 100, 2, Duration.ofSeconds(10));
+        insertMovie("tt1");
+        insertMovie("tt2");
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void refreshesChangesThatOverflowedAFullQueue() throws Exception {
+        CountDownLatch refreshing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MongoTemplate template = spy(mongoTemplate);
+        doAnswer(invocation -> {
+            refreshing.countDown();
+            release.await();
+            return invocation.callRealMethod();
+        }).when(template).find(any(Query.class), eq(Document.class), eq("movies"));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        replacePipeline(template, registry, 1, Duration.ofSeconds(10));
+        insertMovie("tt3");
+
+        pipeline.onMovieChanged(new MovieChangedEvent("tt1"));
+        assertThat(refreshing.await(5, TimeUnit.SECONDS)).isTrue();
+        pipeline.onMovieChanged(new MovieChangedEvent("tt2"));
+        pipeline.onMovieChanged(new MovieChangedEvent("tt3"));
+        pipeline.onMovieChanged(new MovieChangedEvent("tt3"));
+        release.countDown();
+
+        assertThat(registry.get("movies.summaries.overflow").counter().count()).isEqualTo(2);
+        awaitSummaries("tt1", "tt2", "tt3");
+    }
+
+    @Test
+    void removesTheSummariesOfDeletedMoviesOnRebuild() throws Exception {
+        mongoTemplate.insert(staleSummary("tt-gone"));
+
+        pipeline.rebuildAll();
+
+        assertThat(mongoTemplate.findAll(MovieSummary.class)).extracting(MovieSummary::getImdbId)
+                .containsExactlyInAnyOrder("tt1", "tt2");
+    }
+
+    @Test
+    void skipsABatchAfterTheLastAttemptAndKeepsStaleSummaries() {
+        MongoTemplate template = spy(mongoTemplate);
+        doThrow(new DataAccessResourceFailureException("unavailable"))
+                .when(template).find(any(Query.class), eq(Document.class), eq("movies"));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        replacePipeline(template, registry, 100, Duration.ofSeconds(10));
+        mongoTemplate.insert(staleSummary("tt-gone"));
+
+        assertThatThrownBy(() -> pipeline.rebuildAll()).isInstanceOf(ExecutionException.class);
+
+        assertThat(registry.get("movies.summaries.failed").counter().count()).isEqualTo(2);
+        assertThat(mongoTemplate.findById("tt-gone", MovieSummary.class)).isNotNull();
+    }
+
+    @Test
+    void givesUpARebuildAfterTheTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        MongoTemplate template = spy(mongoTemplate);
+        doAnswer(invocation -> {
+            release.await();
+            return invocation.callRealMethod();
+        }).when(template).find(any(Query.class), eq(Document.class), eq("movies"));
+        replacePipeline(template, new SimpleMeterRegistry(), 100, Duration.ofMillis(200));
+        mongoTemplate.insert(staleSummary("tt-gone"));
+
+        try {
+            assertThatThrownBy(() -> pipeline.rebuildAll()).isInstanceOf(TimeoutException.class);
+        } finally {
+            release.countDown();
+        }
+        assertThat(mongoTemplate.findById("tt-gone", MovieSummary.class)).isNotNull();
+    }
+
+    private void replacePipeline(MongoTemplate template, SimpleMeterRegistry registry, int queueCapacity, Duration rebuildTimeout) {
+        pipeline.shutdown();
+        pipeline = new MovieSummaryPipeline(template, registry, 1, 10, queueCapacity, 2, rebuildTimeout);
+    }
+
+    private void awaitSummaries(String... imdbIds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        Query summaries = Query.query(Criteria.where("_id").in(Arrays.asList(imdbIds)));
+        while (mongoTemplate.count(summaries, MovieSummary.class) < imdbIds.length) {
+            assertThat(System.nanoTime()).as("summaries written in time").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private static MovieSummary staleSummary(String imdbId) {
+        MovieSummary summary = new MovieSummary();
+        summary.setImdbId(imdbId);
+        summary.setRefreshedAt(Instant.EPOCH);
+        return summary;
+    }
+
+    private void insertMovie(String imdbId) {
+        Movie movie = new Movie();
+        movie.setImdbId(imdbId);
+        mongoTemplate.insert(movie);
+    }
+}
@@ -0,0 +1,19 @@
+package com.md.MovieReview.MovieReview.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MovieVersionsTest {
+
+    @Test
+    void handsOutIncreasingVersionsFromTheCurrentTime() {
+        long before = System.currentTimeMillis() * 1000;
+
+        long first = MovieVersions.initial();
+        long second = MovieVersions.initial();
+
+        assertThat(first).isGreaterThanOrEqualTo(before);
+        assertThat(second).isGreaterThan(first);
+    }
+}
@@ -0,0 +1,23 @@
+package com.md.MovieReview.MovieReview.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReleaseDatesTest {
+
+    @Test
+    void parsesIsoDatesAsMidnightUtc() {
+        assertThat(ReleaseDates.parse("2022-12-21")).isEqualTo(Instant.parse("2022-12-21T00:00:00Z"));
+        assertThat(ReleaseDates.parse(" 2022-12-21 ")).isEqualTo(Instant.parse("2022-12-21T00:00:00Z"));
+    }
+
+    @Test
+    void leavesMissingAndFreeFormDatesOut() {
+        assertThat(ReleaseDates.parse(null)).isNull();
+        assertThat(ReleaseDates.parse(" ")).isNull();
+        assertThat(ReleaseDates.parse("December 2022")).isNull();
+    }
+}
@@ -0,0 +1,139 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.md.MovieReview.MovieReview.InMemoryMongo;
+import com.md.MovieReview.MovieReview.document.BucketedReview;
+import com.md.MovieReview.MovieReview.document.Review;
+import com.md.MovieReview.MovieReview.document.ReviewBucket;
+import com.md.MovieReview.MovieReview.dto.ReviewPage;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+class ReviewBucketsTest {
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        InMemoryMongo.register(registry);
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private ReviewBuckets reviewBuckets;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+        // Index creation is off in the tests, the unique index on open buckets is what starts a new bucket.
+        IndexOperations indexes = mongoTemplate.indexOps(ReviewBucket.class);
+        IndexResolver.create(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(ReviewBucket.class)
+                .forEach(indexes::ensureIndex);
+        reviewBuckets = new ReviewBuckets(mongoTemplate, 2);
+    }
+
+    @Test
+    void closesAFullBucketBeforeStartingTheNext() {
+        for (int i = 0; i < 5; i++) {
+            reviewBuckets.add(review("tt1", "review " + i));
+        }
+
+        List<ReviewBucket> buckets = buckets("tt1");
+        assertThat(buckets).extracting(ReviewBucket::getCount).containsExactly(2, 2, 1);
+        assertThat(buckets).extracting(ReviewBucket::isOpen).containsExactly(false, false, true);
+    }
+
+    @Test
+    void resumesABulkAppendAfterClosingAFullBucket() {
+        List<Review> reviews = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            reviews.add(review("tt1", "review " + i));
+            reviews.add(review("tt2", "review " + i));
+        }
+
+        reviewBuckets.addAll(reviews);
+
+        for (String imdbId : List.of("tt1", "tt2")) {
+            List<ReviewBucket> buckets = buckets(imdbId);
+            assertThat(buckets).extracting(ReviewBucket::getCount).containsExactly(2, 2, 1);
+            assertThat(buckets).filteredOn(ReviewBucket::isOpen).hasSize(1);
+        }
+    }
+
+    @Test
+    void skipsBucketsWhoseReviewsWereAllDeleted() {
+        List<Review> reviews = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Review review = review("tt1", "review " + i);
+            reviewBuckets.add(review);
+            reviews.add(review);
+        }
+        // The open bucket stays when empty, it takes the next review.
+        reviewBuckets.removeReviews("tt1", List.of(reviews.get(4).getId()));
+
+        ReviewPage first = reviewBuckets.page("tt1", null);
+        assertThat(first.getReviews()).extracting(BucketedReview::getBody).containsExactly("review 3", "review 2");
+        assertThat(first.getNextCursor()).isNotNull();
+
+        ReviewPage second = reviewBuckets.page("tt1", first.getNextCursor());
+        assertThat(second.getReviews()).extracting(BucketedReview::getBody).containsExactly("review 1", "review 0");
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void dropsClosedBucketsLeftEmptyButKeepsTheOpenOne() {
+        List<ObjectId> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Review review = review("tt1", "review " + i);
+            reviewBuckets.add(review);
+            ids.add(review.getId());
+        }
+
+        assertThat(reviewBuckets.removeReviews("tt1", ids)).isEqualTo(3);
+
+        List<ReviewBucket> buckets = buckets("tt1");
+        assertThat(buckets).hasSize(1);
+        assertThat(buckets.get(0).isOpen()).isTrue();
+        assertThat(reviewBuckets.page("tt1", null).getReviews()).isEmpty();
+    }
+
+    @Test
+    void onlyDropsEmptyBucketsAmongThoseJustChanged() {
+        ReviewBucket elsewhere = mongoTemplate.insert(new ReviewBucket(null, "tt2", 0, false, List.of()));
+        List<ObjectId> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Review review = review("tt1", "review " + i);
+            reviewBuckets.add(review);
+            ids.add(review.getId());
+        }
+
+        reviewBuckets.removeReviews(List.of(ids.get(0), ids.get(1), ids.get(2)));
+
+        assertThat(buckets("tt1")).extracting(ReviewBucket::getCount).containsExactly(0);
+        assertThat(mongoTemplate.findById(elsewhere.getId(), ReviewBucket.class)).isNotNull();
+    }
+
+    private Review review(String imdbId, String body) {
+        return mongoTemplate.insert(new Review(body, imdbId));
+    }
+
+    private List<ReviewBucket> buckets(String imdbId) {
+        return mongoTemplate.find(Query.query(Criteria.where("imdbId").is(imdbId)).with(Sort.by("_id")), ReviewBucket.class);
+    }
+}
@@ -0,0 +1,121 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.md.MovieReview.MovieReview.InMemoryMongo;
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.Review;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@DataMongoTest
+class ReviewConsistencySweeperTest {
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        InMemoryMongo.register(registry);
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private ReviewBuckets reviewBuckets;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+        reviewBuckets = new ReviewBuckets(mongoTemplate, 100);
+    }
+
+    @Test
+    void pullsReviewIdsOfDeletedReviewsAndDecrementsOnce() {
+        ReviewConsistencySweeper sweeper = sweeper(true);
+        Review kept = insertReview("tt1", "kept");
+        Review deleted = insertReview("tt1", "deleted");
+        insertMovie("tt1", true, kept, deleted);
+        mongoTemplate.remove(deleted);
+
+        sweepAll(sweeper);
+        sweepAll(sweeper);
+
+        Document movie = rawMovie("tt1");
+        assertThat(movie.getInteger("reviewCount")).isEqualTo(1);
+        assertThat(movie.getList("reviewIds", Object.class)).containsExactly(kept.getId());
+    }
+
+    @Test
+    void removesBucketedCopiesOfDeletedReviewsWithBucketsOnly() {
+        ReviewConsistencySweeper sweeper = sweeper(false);
+        Review kept = insertReview("tt1", "kept");
+        Review deleted = insertReview("tt1", "deleted");
+        insertMovie("tt1", false, kept, deleted);
+        mongoTemplate.remove(deleted);
+
+        sweepAll(sweeper);
+        sweepAll(sweeper);
+
+        assertThat(rawMovie("tt1").getInteger("reviewCount")).isEqualTo(1);
+        assertThat(reviewBuckets.page("tt1", null).getReviews()).extracting("reviewId").containsExactly(kept.getId());
+    }
+
+    @Test
+    void deletesReviewsOfMoviesThatAreGone() {
+        ReviewConsistencySweeper sweeper = sweeper(true);
+        Review orphan = mongoTemplate.insert(new Review("orphan", "tt404"));
+        Review legacy = mongoTemplate.insert(new Review("legacy"));
+
+        sweepAll(sweeper);
+
+        assertThat(mongoTemplate.findById(orphan.getId(), Review.class)).isNull();
+        assertThat(mongoTemplate.findById(legacy.getId(), Review.class)).isNotNull();
+    }
+
+    /**
+     * One tick per collection: movies, buckets and reviews.
+     */
+    private static void sweepAll(ReviewConsistencySweeper sweeper) {
+        sweeper.sweep();
+        sweeper.sweep();
+        sweeper.sweep();
+    }
+
+    private ReviewConsistencySweeper sweeper(boolean countedByReviewIds) {
+        ReviewReferenceCleanup cleanup = new ReviewReferenceCleanup(mongoTemplate, mock(MovieCache.class), reviewBuckets,
+                mock(ApplicationEventPublisher.class), new SimpleMeterRegistry(), countedByReviewIds, 200, 0.5, 50);
+        return new ReviewConsistencySweeper(mongoTemplate, cleanup, reviewBuckets, new SimpleMeterRegistry(), 200, 0.5, 50);
+    }
+
+    private Review insertReview(String imdbId, String body) {
+        Review review = mongoTemplate.insert(new Review(body, imdbId));
+        reviewBuckets.add(review);
+        return review;
+    }
+
+    private void insertMovie(String imdbId, boolean withReviewIds, Review... reviews) {
+        Movie movie = new Movie();
+        movie.setImdbId(imdbId);
+        if (withReviewIds) {
+            movie.setReviewIds(new ArrayList<>(List.of(reviews)));
+        }
+        movie.setReviewCount(reviews.length);
+        mongoTemplate.insert(movie);
+    }
+
+    private Document rawMovie(String imdbId) {
+        return mongoTemplate.findOne(Query.query(Criteria.where("imdbId").is(imdbId)), Document.class, "movies");
+    }
+}
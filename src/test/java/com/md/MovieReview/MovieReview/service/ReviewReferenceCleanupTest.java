@@ -0,0 +1,197 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.md.MovieReview.MovieReview.InMemoryMongo;
+import com.md.MovieReview.MovieReview.document.BucketedReview;
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.MovieDeletion;
+import com.md.MovieReview.MovieReview.document.Review;
+import com.md.MovieReview.MovieReview.document.ReviewBucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@DataMongoTest
+class ReviewReferenceCleanupTest {
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        InMemoryMongo.register(registry);
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private ReviewBuckets reviewBuckets;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+        reviewBuckets = new ReviewBuckets(mongoTemplate, 100);
+    }
+
+    @Test
+    void decrementsOnceForAReviewDeletedTwiceWhileIdsArePushed() {
+        ReviewReferenceCleanup cleanup = cleanup(true);
+        Review first = insertReview("tt1", "first");
+        Review second = insertReview("tt1", "second");
+        insertMovie("tt1", true, first, second);
+
+        cleanup.reviewDeleted(first.getId(), "tt1");
+        cleanup.reviewDeleted(first.getId(), "tt1");
+        cleanup.flush();
+        cleanup.reviewDeleted(first.getId(), "tt1");
+        cleanup.flush();
+
+        Document movie = rawMovie("tt1");
+        assertThat(movie.getInteger("reviewCount")).isEqualTo(1);
+        assertThat(movie.getList("reviewIds", Object.class)).containsExactly(second.getId());
+        assertThat(bucketedIds("tt1")).containsExactly(second.getId());
+    }
+
+    @Test
+    void decrementsOnceForAReviewDeletedTwiceWithBucketsOnly() {
+        ReviewReferenceCleanup cleanup = cleanup(false);
+        Review first = insertReview("tt1", "first");
+        Review second = insertReview("tt1", "second");
+        insertMovie("tt1", false, first, second);
+
+        cleanup.reviewDeleted(first.getId(), "tt1");
+        cleanup.reviewDeleted(first.getId(), "tt1");
+        cleanup.flush();
+        cleanup.reviewDeleted(first.getId(), "tt1");
+        cleanup.flush();
+
+        assertThat(rawMovie("tt1").getInteger("reviewCount")).isEqualTo(1);
+        assertThat(bucketedIds("tt1")).containsExactly(second.getId());
+    }
+
+    @Test
+    void deletesTheReviewsOfADeletedMovieButNotThoseOfItsSuccessor() {
+        ReviewReferenceCleanup cleanup = cleanup(true);
+        Review legacy = mongoTemplate.insert(new Review("legacy"));
+        Review old = insertReview("tt1", "old");
+        ObjectId deletedMovieId = insertMovie("tt1", true, legacy, old);
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(deletedMovieId)), Movie.class);
+
+        cleanup.movieDeleted(deletedMovieId, "tt1", List.of(legacy.getId(), old.getId()));
+        insertMovie("tt1", true);
+        Review fresh = insertReview("tt1", "fresh");
+        flushMovieDeletions(cleanup);
+
+        assertThat(mongoTemplate.findAll(Review.class)).extracting(Review::getId).containsExactly(fresh.getId());
+        assertThat(bucketedIds("tt1")).containsExactly(fresh.getId());
+        assertThat(mongoTemplate.count(new Query(), MovieDeletion.class)).isZero();
+    }
+
+    @Test
+    void resumesMovieDeletionsRecordedBeforeARestart() {
+        Review old = insertReview("tt1", "old");
+        mongoTemplate.insert(MovieDeletion.of(new ObjectId(), "tt1", List.of()));
+
+        flushMovieDeletions(cleanup(true));
+
+        assertThat(mongoTemplate.findById(old.getId(), Review.class)).isNull();
+        assertThat(mongoTemplate.count(new Query(), MovieDeletion.class)).isZero();
+    }
+
+    @Test
+    void deletesOneBatchOfADeletedMoviePerFlush() {
+        ReviewReferenceCleanup cleanup = cleanup(new SimpleMeterRegistry(), 2);
+        Review first = insertReview("tt1", "first");
+        Review second = insertReview("tt1", "second");
+        Review third = insertReview("tt1", "third");
+
+        cleanup.movieDeleted(new ObjectId(), "tt1", List.of(first.getId(), second.getId(), third.getId()));
+        cleanup.flush();
+
+        assertThat(mongoTemplate.findAll(Review.class)).extracting(Review::getId).containsExactly(third.getId());
+        assertThat(mongoTemplate.findAll(MovieDeletion.class)).singleElement()
+                .extracting(MovieDeletion::getReviewIds).isEqualTo(List.of(third.getId()));
+
+        flushMovieDeletions(cleanup);
+
+        assertThat(mongoTemplate.count(new Query(), Review.class)).isZero();
+    }
+
+    @Test
+    void holdsMovieDeletionsBackWhileThePoolIsBusy() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AtomicInteger checkedOut = registry.gauge("mongodb.driver.pool.checkedout", new AtomicInteger(50));
+        ReviewReferenceCleanup cleanup = cleanup(registry, 200);
+        Review old = insertReview("tt1", "old");
+
+        cleanup.movieDeleted(new ObjectId(), "tt1", List.of(old.getId()));
+        cleanup.flush();
+
+        assertThat(mongoTemplate.findById(old.getId(), Review.class)).isNotNull();
+
+        checkedOut.set(0);
+        flushMovieDeletions(cleanup);
+
+        assertThat(mongoTemplate.findById(old.getId(), Review.class)).isNull();
+    }
+
+    /**
+     * Flushes until no movie deletion is left, a few batches at most.
+     */
+    private void flushMovieDeletions(ReviewReferenceCleanup cleanup) {
+        for (int i = 0; i < 10 && mongoTemplate.count(new Query(), MovieDeletion.class) > 0; i++) {
+            cleanup.flush();
+        }
+    }
+
+    private ReviewReferenceCleanup cleanup(boolean countedByReviewIds) {
+        return new ReviewReferenceCleanup(mongoTemplate, mock(MovieCache.class), reviewBuckets,
+                mock(ApplicationEventPublisher.class), new SimpleMeterRegistry(), countedByReviewIds, 200, 0.5, 50);
+    }
+
+    private ReviewReferenceCleanup cleanup(MeterRegistry meterRegistry, int batchSize) {
+        return new ReviewReferenceCleanup(mongoTemplate, mock(MovieCache.class), reviewBuckets,
+                mock(ApplicationEventPublisher.class), meterRegistry, true, batchSize, 0.5, 50);
+    }
+
+    private Review insertReview(String imdbId, String body) {
+        Review review = mongoTemplate.insert(new Review(body, imdbId));
+        reviewBuckets.add(review);
+        return review;
+    }
+
+    private ObjectId insertMovie(String imdbId, boolean withReviewIds, Review... reviews) {
+        Movie movie = new Movie();
+        movie.setImdbId(imdbId);
+        if (withReviewIds) {
+            movie.setReviewIds(new ArrayList<>(List.of(reviews)));
+        }
+        movie.setReviewCount(reviews.length);
+        return mongoTemplate.insert(movie).getId();
+    }
+
+    private Document rawMovie(String imdbId) {
+        return mongoTemplate.findOne(Query.query(Criteria.where("imdbId").is(imdbId)), Document.class, "movies");
+    }
+
+    private List<ObjectId> bucketedIds(String imdbId) {
+        return mongoTemplate.find(Query.query(Criteria.where("imdbId").is(imdbId)), ReviewBucket.class).stream()
+                .flatMap(bucket -> bucket.getReviews().stream())
+                .map(BucketedReview::getReviewId)
+                .toList();
+    }
+}
@@ -0,0 +1,240 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.md.MovieReview.MovieReview.InMemoryMongo;
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.Review;
+import com.md.MovieReview.MovieReview.document.ReviewBucket;
+import com.md.MovieReview.MovieReview.dto.BulkReviewItemResult;
+import com.md.MovieReview.MovieReview.dto.BulkReviewResult;
+import com.md.MovieReview.MovieReview.repository.ReviewRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataMongoTest
+class ReviewServiceTest {
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        InMemoryMongo.register(registry);
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    private final MovieCache movieCache = mock(MovieCache.class);
+    private final ReviewReferenceCleanup referenceCleanup = mock(ReviewReferenceCleanup.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private ReviewService reviewService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mongoTemplate.getDb().drop();
+        reviewService = reviewService(mock(ObjectProvider.class));
+    }
+
+    @Test
+    void createsTheReviewAndLinksItToItsMovie() {
+        insertMovie("tt1");
+
+        Review review = reviewService.createReview("great", "tt1").orElseThrow();
+
+        assertThat(mongoTemplate.findById(review.getId(), Review.class)).isNotNull();
+        Document movie = rawMovie("tt1");
+        assertThat(movie.getList("reviewIds", Object.class)).containsExactly(review.getId());
+        assertThat(movie.getInteger("reviewCount")).isEqualTo(1);
+        assertThat(mongoTemplate.findAll(ReviewBucket.class)).singleElement()
+                .satisfies(bucket -> assertThat(bucket.getReviews()).extracting("reviewId").containsExactly(review.getId()));
+        verify(movieCache).invalidate("tt1");
+    }
+
+    @Test
+    void storesNothingForAnUnknownMovie() {
+        assertThat(reviewService.createReview("great", "tt404")).isEmpty();
+
+        assertThat(mongoTemplate.count(new Query(), Review.class)).isZero();
+        assertThat(mongoTemplate.count(new Query(), ReviewBucket.class)).isZero();
+    }
+
+    @Test
+    void importsABulkOfReviewsAndRejectsUnknownMovies() throws Exception {
+        insertMovie("tt1");
+        insertMovie("tt2");
+        String payload = "[{\"reviewBody\":\"a\",\"imdbId\":\"tt1\"},{\"reviewBody\":\"b\",\"imdbId\":\"tt404\"},"
+                + "{\"reviewBody\":\"c\",\"imdbId\":\"tt1\"},{\"imdbId\":\"tt2\"},{\"reviewBody\":\"d\",\"imdbId\":\"tt2\"}]";
+
+        BulkReviewResult result = reviewService.createReviews(stream(payload));
+
+        assertThat(result.getInserted()).isEqualTo(3);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getItems()).filteredOn(item -> item.getError() != null)
+                .extracting(BulkReviewItemResult::getIndex).containsExactlyInAnyOrder(1, 3);
+        assertThat(rawMovie("tt1").getInteger("reviewCount")).isEqualTo(2);
+        assertThat(rawMovie("tt2").getList("reviewIds", Object.class)).hasSize(1);
+        assertThat(mongoTemplate.count(new Query(), Review.class)).isEqualTo(3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void undoesTheReviewsOfAMovieDeletedDuringTheImport() throws Exception {
+        insertMovie("tt1");
+        insertMovie("tt2");
+        MongoTemplate template = spy(mongoTemplate);
+        doAnswer(invocation -> {
+            // tt2 is deleted after it was checked, right before the review ids are appended.
+            mongoTemplate.remove(Query.query(Criteria.where("imdbId").is("tt2")), Movie.class);
+            return invocation.callRealMethod();
+        }).when(template).bulkOps(BulkOperations.BulkMode.UNORDERED, "movies");
+        ReviewService importing = reviewService(mock(ObjectProvider.class), template);
+        String payload = "[{\"reviewBody\":\"a\",\"imdbId\":\"tt1\"},{\"reviewBody\":\"b\",\"imdbId\":\"tt2\"}]";
+
+        BulkReviewResult result = importing.createReviews(stream(payload));
+
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getItems()).filteredOn(item -> item.getError() != null)
+                .extracting(BulkReviewItemResult::getImdbId).containsExactly("tt2");
+        assertThat(mongoTemplate.findAll(Review.class)).extracting(Review::getImdbId).containsExactly("tt1");
+        assertThat(mongoTemplate.findAll(ReviewBucket.class)).flatExtracting(ReviewBucket::getReviews)
+                .extracting("body").containsExactly("a");
+    }
+
+    @Test
+    void keepsWhatWasImportedBeforeMalformedNdjson() throws Exception {
+        insertMovie("tt1");
+        String payload = "{\"reviewBody\":\"a\",\"imdbId\":\"tt1\"}\n{\"reviewBody\":\n";
+
+        BulkReviewResult result = reviewService.createReviews(stream(payload));
+
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(mongoTemplate.count(new Query(), Review.class)).isEqualTo(1);
+    }
+
+    @Test
+    void updatingAReviewUpdatesItsBucketCopyAndTheMovieVersion() {
+        insertMovie("tt1");
+        Review review = reviewService.createReview("before", "tt1").orElseThrow();
+        long version = movie("tt1").getVersion();
+        clearInvocations(movieCache, eventPublisher);
+
+        assertThat(reviewService.updateReview(review.getId(), "{\"reviewMessage\":\"after\"}")).map(Review::getBody).contains("after");
+
+        assertThat(mongoTemplate.findById(review.getId(), Review.class).getBody()).isEqualTo("after");
+        assertThat(movie("tt1").getVersion()).isEqualTo(version + 1);
+        assertThat(mongoTemplate.findAll(ReviewBucket.class).get(0).getReviews().get(0).getBody()).isEqualTo("after");
+        verify(movieCache).invalidate("tt1");
+        verify(eventPublisher).publishEvent(new MovieChangedEvent("tt1"));
+    }
+
+    @Test
+    void updatingALegacyReviewInvalidatesTheMovieReferencingIt() {
+        Review legacy = mongoTemplate.insert(new Review("before"));
+        insertMovie("tt1", legacy);
+
+        assertThat(reviewService.updateReview(legacy.getId(), "{\"reviewMessage\":\"after\"}")).map(Review::getBody).contains("after");
+
+        verify(movieCache).invalidate("tt1");
+        verify(eventPublisher).publishEvent(new MovieChangedEvent("tt1"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void givesUpOnACoalescedUpdateAfterTheTimeout() {
+        ReviewUpdateCoalescer coalescer = mock(ReviewUpdateCoalescer.class);
+        when(coalescer.submit(any(ObjectId.class), eq("after"))).thenReturn(new CompletableFuture<Optional<Review>>());
+        ObjectProvider<ReviewUpdateCoalescer> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(coalescer);
+        ReviewService coalescing = reviewService(provider);
+
+        assertThatThrownBy(() -> coalescing.updateReview(new ObjectId(), "{\"reviewMessage\":\"after\"}"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void deletingALegacyReviewQueuesItsMovie() {
+        Review legacy = mongoTemplate.insert(new Review("before"));
+        insertMovie("tt1", legacy);
+
+        assertThat(reviewService.deleteReview(legacy.getId())).isPresent();
+
+        verify(referenceCleanup).reviewDeleted(legacy.getId(), "tt1");
+    }
+
+    @Test
+    void deletingAReviewEvictsItsMovieBeforeTheCleanupRuns() {
+        insertMovie("tt1");
+        Review review = reviewService.createReview("great", "tt1").orElseThrow();
+        clearInvocations(movieCache);
+
+        assertThat(reviewService.deleteReview(review.getId())).isPresent();
+
+        verify(movieCache).invalidate("tt1");
+        verify(referenceCleanup).reviewDeleted(review.getId(), "tt1");
+    }
+
+    private ReviewService reviewService(ObjectProvider<ReviewUpdateCoalescer> updateCoalescer) {
+        return reviewService(updateCoalescer, mongoTemplate);
+    }
+
+    private ReviewService reviewService(ObjectProvider<ReviewUpdateCoalescer> updateCoalescer, MongoTemplate template) {
+        return new ReviewService(reviewRepository, template, movieCache, new ObjectMapper(), updateCoalescer,
+                Duration.ofMillis(50), referenceCleanup, new ReviewBuckets(template, 100), true, eventPublisher);
+    }
+
+    private void insertMovie(String imdbId, Review... reviews) {
+        Movie movie = new Movie();
+        movie.setImdbId(imdbId);
+        movie.setReviewIds(new ArrayList<>(List.of(reviews)));
+        movie.setReviewCount(reviews.length);
+        mongoTemplate.insert(movie);
+    }
+
+    private Document rawMovie(String imdbId) {
+        return mongoTemplate.findOne(Query.query(Criteria.where("imdbId").is(imdbId)), Document.class, "movies");
+    }
+
+    private static ByteArrayInputStream stream(String payload) {
+        return new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Movie movie(String imdbId) {
+        Query query = Query.query(Criteria.where("imdbId").is(imdbId));
+        query.fields().exclude("reviewIds");
+        return mongoTemplate.findOne(query, Movie.class);
+    }
+}
@@ -0,0 +1,84 @@
+package com.md.MovieReview.MovieReview.service;
+
+import com.md.MovieReview.MovieReview.InMemoryMongo;
+import com.md.MovieReview.MovieReview.document.Movie;
+import com.md.MovieReview.MovieReview.document.Review;
+import com.md.MovieReview.MovieReview.document.ReviewBucket;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataMongoTest
+class ReviewUpdateCoalescerTest {
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        InMemoryMongo.register(registry);
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final MovieCache movieCache = mock(MovieCache.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private ReviewBuckets reviewBuckets;
+    private ReviewUpdateCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.getDb().drop();
+        reviewBuckets = new ReviewBuckets(mongoTemplate, 100);
+        coalescer = new ReviewUpdateCoalescer(mongoTemplate, movieCache, reviewBuckets, eventPublisher, Duration.ofMillis(20));
+    }
+
+    @AfterEach
+    void tearDown() {
+        coalescer.shutdown();
+    }
+
+    @Test
+    void writesOnlyTheLastEditOfAWindowWithItsBucketCopyAndMovieVersion() throws Exception {
+        Movie movie = new Movie();
+        movie.setImdbId("tt1");
+        mongoTemplate.insert(movie);
+        Review review = mongoTemplate.insert(new Review("before", "tt1"));
+        reviewBuckets.add(review);
+
+        CompletableFuture<Optional<Review>> first = coalescer.submit(review.getId(), "first");
+        CompletableFuture<Optional<Review>> last = coalescer.submit(review.getId(), "last");
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).map(Review::getBody).contains("last");
+        assertThat(last.get(5, TimeUnit.SECONDS)).map(Review::getBody).contains("last");
+        assertThat(mongoTemplate.findById(review.getId(), Review.class).getBody()).isEqualTo("last");
+        assertThat(mongoTemplate.findAll(ReviewBucket.class).get(0).getReviews().get(0).getBody()).isEqualTo("last");
+        Query tt1 = Query.query(Criteria.where("imdbId").is("tt1"));
+        tt1.fields().exclude("reviewIds");
+        assertThat(mongoTemplate.findOne(tt1, Movie.class).getVersion()).isEqualTo(1L);
+        verify(movieCache).invalidate("tt1");
+        verify(eventPublisher, times(1)).publishEvent(new MovieChangedEvent("tt1"));
+    }
+
+    @Test
+    void completesUnknownReviewsEmpty() throws Exception {
+        assertThat(coalescer.submit(new ObjectId(), "body").get(5, TimeUnit.SECONDS)).isEmpty();
+    }
+}